@@ -0,0 +1,23 @@
+package com.itemremapper;
+
+import com.itemremapper.bench.HeadlessPlugin;
+import com.itemremapper.bench.HeadlessServer;
+
+/**
+ * The plugin instance shared by all benchmarks of a fork, enabled once on the
+ * headless server with bench-config.yml
+ */
+final class BenchmarkFixture {
+
+    private static ItemRemapperPlugin plugin;
+
+    private BenchmarkFixture() {
+    }
+
+    static synchronized ItemRemapperPlugin plugin() {
+        if (plugin == null) {
+            plugin = HeadlessPlugin.enable(HeadlessServer.install(), "bench-config.yml");
+        }
+        return plugin;
+    }
+}
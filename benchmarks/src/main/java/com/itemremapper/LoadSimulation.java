@@ -0,0 +1,314 @@
+package com.itemremapper;
+
+import com.itemremapper.bench.HeadlessPlugin;
+import com.itemremapper.bench.HeadlessScheduler;
+import com.itemremapper.bench.HeadlessServer;
+import com.itemremapper.bench.StubInventoryView;
+import com.itemremapper.bench.StubPlayer;
+import com.itemremapper.bench.StubWorld;
+import org.bukkit.Material;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless load simulation: boots the plugin on the stub server, lets N players pick
+ * up and click items while discs go in and out of M jukeboxes, and reports the time
+ * spent per tick and the number of tasks the plugin schedules.
+ * Discs go in and out of the jukeboxes through hopper transfers.
+ * <p>
+ * Tick time covers the event handlers and every task due that tick, including the
+ * overhead of the stub server's proxies, so compare runs with each other rather than
+ * with a real server.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.itemremapper.LoadSimulation --players 200 --jukeboxes 5000
+ * </pre>
+ */
+public final class LoadSimulation {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50L);
+    private static final int JUKEBOX_SPACING = 8;
+    private static final int JUKEBOX_Y = 64;
+
+    // Picked up and clicked in turn: a remapped material, one without a rule, and a variant
+    private static final Material[] ITEMS = {Material.DIAMOND, Material.STONE, Material.DIAMOND_SWORD};
+    // One disc with a custom sound and one played by vanilla
+    private static final Material[] DISCS = {Material.MUSIC_DISC_CAT, Material.MUSIC_DISC_13};
+
+    private final Options options;
+    private final Random random;
+    private final HeadlessServer server;
+    private final HeadlessScheduler scheduler;
+    private final StubWorld world = new StubWorld("world");
+    private final List<StubPlayer> players = new ArrayList<>();
+    private final List<StubInventoryView> views = new ArrayList<>();
+    private final List<StubWorld.StubJukebox> jukeboxes = new ArrayList<>();
+    private ItemRemapperPlugin plugin;
+
+    private long pickups;
+    private long clicks;
+    private long discChanges;
+
+    private LoadSimulation(Options options) {
+        this.options = options;
+        this.random = new Random(options.seed);
+        this.server = HeadlessServer.install();
+        this.scheduler = server.getScheduler();
+    }
+
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(Options.USAGE);
+            System.exit(2);
+            return;
+        }
+        new LoadSimulation(options).run();
+    }
+
+    private void run() {
+        populate();
+        plugin = HeadlessPlugin.enable(server, "bench-config.yml");
+
+        System.out.printf(Locale.ROOT, "ItemRemapper load simulation: %d players, %d jukeboxes, %d ticks (+%d warmup)%s%n",
+                options.players, options.jukeboxes, options.ticks, options.warmupTicks,
+                options.realtime ? ", real time" : "");
+
+        for (int tick = 0; tick < options.warmupTicks; tick++) {
+            runTick(tick);
+        }
+        // Recording is off in the shared config; turned on here so the per-handler breakdown covers the measured ticks only
+        plugin.getMetrics().setEnabled(true);
+        long scheduledBefore = scheduler.getScheduledCount();
+        long executedBefore = scheduler.getExecutedCount();
+        long pickupsBefore = pickups;
+        long clicksBefore = clicks;
+        long discChangesBefore = discChanges;
+
+        long[] tickNanos = new long[options.ticks];
+        long[] scheduledPerTick = new long[options.ticks];
+        long[] ranPerTick = new long[options.ticks];
+        for (int i = 0; i < options.ticks; i++) {
+            long scheduled = scheduler.getScheduledCount();
+            long executed = scheduler.getExecutedCount();
+            tickNanos[i] = runTick(options.warmupTicks + i);
+            scheduledPerTick[i] = scheduler.getScheduledCount() - scheduled;
+            ranPerTick[i] = scheduler.getExecutedCount() - executed;
+        }
+
+        report(tickNanos, scheduledPerTick, ranPerTick,
+                scheduler.getScheduledCount() - scheduledBefore, scheduler.getExecutedCount() - executedBefore,
+                pickups - pickupsBefore, clicks - clicksBefore, discChanges - discChangesBefore);
+        plugin.onDisable();
+    }
+
+    /**
+     * Places the jukeboxes in a square grid and spreads the players over it, so
+     * every jukebox is within hearing range of someone
+     */
+    private void populate() {
+        server.addWorld(world.getWorld());
+
+        int side = (int) Math.ceil(Math.sqrt(options.jukeboxes));
+        for (int i = 0; i < options.jukeboxes; i++) {
+            jukeboxes.add(world.placeJukebox((i % side) * JUKEBOX_SPACING, JUKEBOX_Y, (i / side) * JUKEBOX_SPACING));
+        }
+
+        int extent = Math.max(1, side * JUKEBOX_SPACING);
+        for (int i = 0; i < options.players; i++) {
+            StubPlayer player = new StubPlayer("Player" + i, world, scheduler,
+                    random.nextInt(extent), JUKEBOX_Y, random.nextInt(extent));
+            players.add(player);
+            views.add(new StubInventoryView(player.getPlayer()));
+            server.addPlayer(player.getPlayer());
+            world.addPlayer(player.getPlayer());
+        }
+    }
+
+    /**
+     * Fires this tick's player events and disc changes, then runs the due tasks
+     *
+     * @return The nanoseconds spent
+     */
+    private long runTick(int tick) {
+        long start = System.nanoTime();
+
+        // Each player acts on its own phase so the events spread evenly over the ticks
+        for (int i = 0; i < players.size(); i++) {
+            if ((tick + i) % options.pickupInterval == 0) {
+                pickup(players.get(i));
+            }
+            if ((tick + i) % options.clickInterval == 0) {
+                click(players.get(i), views.get(i));
+            }
+        }
+
+        if (!jukeboxes.isEmpty()) {
+            for (int i = 0; i < options.discChangesPerTick; i++) {
+                changeDisc(jukeboxes.get(random.nextInt(jukeboxes.size())));
+            }
+        }
+
+        scheduler.tick();
+        long elapsed = System.nanoTime() - start;
+
+        if (options.realtime && elapsed < TICK_NANOS) {
+            // Lets the plugin's wall-clock intervals (jukebox saves, metrics export) line up with ticks
+            try {
+                TimeUnit.NANOSECONDS.sleep(TICK_NANOS - elapsed);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return elapsed;
+    }
+
+    /**
+     * Lets a hopper insert a disc into an empty jukebox, or pull the disc out of a full one
+     */
+    private void changeDisc(StubWorld.StubJukebox jukebox) {
+        if (jukebox.hasRecord()) {
+            ItemStack disc = jukebox.getInventory().getItem(0);
+            server.callEvent(new InventoryMoveItemEvent(jukebox.getInventory(), disc, jukebox.getHopperInventory(), false));
+            jukebox.setRecord(null);
+        } else {
+            ItemStack disc = new ItemStack(DISCS[random.nextInt(DISCS.length)]);
+            server.callEvent(new InventoryMoveItemEvent(jukebox.getHopperInventory(), disc, jukebox.getInventory(), true));
+            jukebox.setRecord(disc);
+        }
+        discChanges++;
+    }
+
+    private void pickup(StubPlayer player) {
+        ItemStack stack = new ItemStack(ITEMS[random.nextInt(ITEMS.length)], 1 + random.nextInt(16));
+        server.callEvent(new EntityPickupItemEvent(player.getPlayer(),
+                world.spawnItem(stack, player.getX(), JUKEBOX_Y, player.getZ()), 0));
+        pickups++;
+    }
+
+    private void click(StubPlayer player, StubInventoryView view) {
+        int slot = random.nextInt(view.getTopInventory().getSize());
+        view.setSlot(slot, new ItemStack(ITEMS[random.nextInt(ITEMS.length)], 1 + random.nextInt(64)));
+        player.setCursor(random.nextBoolean() ? new ItemStack(ITEMS[random.nextInt(ITEMS.length)]) : null);
+        server.callEvent(new InventoryClickEvent(view, InventoryType.SlotType.CONTAINER, slot,
+                ClickType.LEFT, InventoryAction.PICKUP_ALL));
+        clicks++;
+    }
+
+    private void report(long[] tickNanos, long[] scheduledPerTick, long[] ranPerTick,
+                        long scheduled, long executed, long pickups, long clicks, long discChanges) {
+        int ticks = tickNanos.length;
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        long total = Arrays.stream(tickNanos).sum();
+        long overBudget = Arrays.stream(tickNanos).filter(nanos -> nanos > TICK_NANOS).count();
+
+        System.out.println();
+        System.out.println("Tick time (ms): mean / p50 / p99 / max");
+        System.out.printf(Locale.ROOT, "  %.3f / %.3f / %.3f / %.3f, %.1f%% of a 50 ms tick on average, %d ticks over budget%n",
+                millis(total / ticks), millis(percentile(sorted, 0.5)), millis(percentile(sorted, 0.99)),
+                millis(sorted[ticks - 1]), 100.0 * total / ticks / TICK_NANOS, overBudget);
+
+        System.out.println("Scheduled tasks: total, per tick mean / max");
+        System.out.printf(Locale.ROOT, "  scheduled %d, %.1f / %d%n", scheduled, (double) scheduled / ticks,
+                Arrays.stream(scheduledPerTick).max().orElse(0L));
+        System.out.printf(Locale.ROOT, "  ran %d, %.1f / %d%n", executed, (double) executed / ticks,
+                Arrays.stream(ranPerTick).max().orElse(0L));
+        System.out.printf(Locale.ROOT, "  pending at end %d%n", scheduler.getPendingCount());
+
+        long playing = jukeboxes.stream().filter(StubWorld.StubJukebox::hasRecord).count();
+        System.out.printf(Locale.ROOT, "Events: %d pickups, %d clicks, %d disc changes; %d jukeboxes hold a disc%n",
+                pickups, clicks, discChanges, playing);
+        System.out.printf(Locale.ROOT, "Players: %d sounds played, %d stopped, %d messages%n",
+                players.stream().mapToLong(StubPlayer::getSoundsPlayed).sum(),
+                players.stream().mapToLong(StubPlayer::getSoundsStopped).sum(),
+                players.stream().mapToLong(StubPlayer::getMessagesReceived).sum());
+
+        System.out.println();
+        for (String line : plugin.getMetrics().formatSummary()) {
+            System.out.println(line.replaceAll("§.", ""));
+        }
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(sorted.length * quantile) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Command line options, all of the form --name value
+     */
+    private static final class Options {
+        static final String USAGE = "Usage: LoadSimulation [--players 200] [--jukeboxes 5000] [--ticks 1200]"
+                + " [--warmup 200] [--pickup-interval 40] [--click-interval 20] [--disc-changes 5]"
+                + " [--seed 1] [--realtime]";
+
+        int players = 200;
+        int jukeboxes = 5000;
+        int ticks = 1200;
+        int warmupTicks = 200;
+        int pickupInterval = 40;
+        int clickInterval = 20;
+        int discChangesPerTick = 5;
+        long seed = 1L;
+        boolean realtime;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String name = args[i];
+                if (name.equals("--realtime")) {
+                    options.realtime = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + name);
+                }
+                String value = args[++i];
+                switch (name) {
+                    case "--players" -> options.players = number(name, value, 0);
+                    case "--jukeboxes" -> options.jukeboxes = number(name, value, 0);
+                    case "--ticks" -> options.ticks = number(name, value, 1);
+                    case "--warmup" -> options.warmupTicks = number(name, value, 0);
+                    case "--pickup-interval" -> options.pickupInterval = number(name, value, 1);
+                    case "--click-interval" -> options.clickInterval = number(name, value, 1);
+                    case "--disc-changes" -> options.discChangesPerTick = number(name, value, 0);
+                    case "--seed" -> options.seed = number(name, value, 0);
+                    default -> throw new IllegalArgumentException("Unknown option " + name);
+                }
+            }
+            return options;
+        }
+
+        private static int number(String name, String value, int min) {
+            try {
+                int number = Integer.parseInt(value);
+                if (number < min) {
+                    throw new IllegalArgumentException(name + " must be at least " + min);
+                }
+                return number;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " expects a number, got " + value);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.itemremapper;
+
+import com.itemremapper.bench.StubWorld;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-packet decisions of the jukebox sound and chat filters, which run on the
+ * netty threads for every sound and chat packet sent to every player.
+ * The benchmark listener's expiration wheel is never ticked, so a disc marked in
+ * the iteration setup stays pending for the whole iteration.
+ * The sound cases follow the handler: prefilter on pending inserts and tracked
+ * chunks, then the sound name, then the exact position. The chat cases gate on
+ * players near a fresh insert, then compare the translation key the reader found.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 400, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 400, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class PacketFilterBenchmark {
+
+    public enum SoundCase {
+        /** Any sound while no disc insert is pending, the common case */
+        IDLE,
+        /** Any other sound next to a jukebox with a pending insert */
+        OTHER_SOUND,
+        /** Disc sound at a jukebox the plugin did not start, while another insert is pending */
+        DISC_UNTRACKED,
+        /** Disc sound right after a remapped disc was inserted, gets cancelled */
+        DISC_PENDING
+    }
+
+    public enum ChatCase {
+        /** Ordinary chat to a player away from jukebox inserts, the common case */
+        PLAYER_CHAT,
+        /** Ordinary chat to a player next to a jukebox that just got a disc */
+        PLAYER_CHAT_NEAR_INSERT,
+        /** The vanilla "Now playing" action bar */
+        NOW_PLAYING
+    }
+
+    private static final int X = 120;
+    private static final int Y = 64;
+    private static final int Z = -340;
+
+    @State(Scope.Benchmark)
+    public static class SoundState {
+        @Param
+        public SoundCase soundCase;
+
+        JukeboxListener listener;
+        World world;
+        String soundName;
+        int soundY;
+
+        @Setup
+        public void setup() {
+            listener = new JukeboxListener(BenchmarkFixture.plugin());
+            world = new StubWorld("world").getWorld();
+            listener.getKnownJukeboxes().add(world, JukeboxIndex.pack(X, Y, Z));
+            soundName = soundCase == SoundCase.IDLE || soundCase == SoundCase.OTHER_SOUND
+                    ? "minecraft:entity.player.levelup" : "minecraft:music_disc.cat";
+            // The untracked disc plays in the same chunk, one block above the pending one
+            soundY = soundCase == SoundCase.DISC_UNTRACKED ? Y + 1 : Y;
+        }
+
+        @Setup(Level.Iteration)
+        public void markDisc() {
+            if (soundCase != SoundCase.IDLE) {
+                listener.markPendingSound(X, Y, Z);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ChatState {
+        @Param
+        public ChatCase chatCase;
+
+        JukeboxListener listener;
+        UUID player;
+        // Translation key the reader finds on the component, null for literal chat
+        String key;
+
+        @Setup
+        public void setup() {
+            listener = new JukeboxListener(BenchmarkFixture.plugin());
+            player = UUID.randomUUID();
+            key = chatCase == ChatCase.NOW_PLAYING ? "record.nowPlaying" : null;
+        }
+
+        @Setup(Level.Iteration)
+        public void markPlayer() {
+            if (chatCase != ChatCase.PLAYER_CHAT) {
+                listener.markNowPlayingListener(player);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean namedSoundFilter(SoundState state) {
+        return state.listener.passesSoundPrefilter(state.world, X, Z)
+                && JukeboxListener.isMusicDiscSound(state.soundName)
+                && state.listener.isPendingSound(X, state.soundY, Z);
+    }
+
+    @Benchmark
+    public boolean chatFilter(ChatState state) {
+        return state.listener.isNowPlayingListener(state.player)
+                && JukeboxListener.isJukeboxTranslationKey(state.key);
+    }
+}
@@ -0,0 +1,98 @@
+package com.itemremapper;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item remapping as done on pickup and inventory moves, for each outcome a stack can have.
+ * {@link #remapItem} works on a fresh clone because a hit changes the stack;
+ * {@link #cloneBaseline} measures that clone alone so it can be subtracted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemapBenchmark {
+
+    public enum StackCase {
+        /** Material without a rule */
+        MISS,
+        /** Plain stack of a remapped material, takes the prototype meta */
+        HIT_PLAIN,
+        /** Stack with a custom model data variant and a stamp from an older config */
+        HIT_VARIANT,
+        /** Stack already carrying the current stamp */
+        UP_TO_DATE,
+        /** Stack renamed by a player, never touched */
+        PLAYER_RENAMED
+    }
+
+    @Param
+    public StackCase stackCase;
+
+    private ItemRemapperPlugin plugin;
+    private StackRemapper stackRemapper;
+    private ItemStack template;
+
+    @Setup
+    public void setup() {
+        plugin = BenchmarkFixture.plugin();
+        stackRemapper = new StackRemapper(plugin);
+        template = switch (stackCase) {
+            case MISS -> new ItemStack(Material.STONE, 16);
+            case HIT_PLAIN -> new ItemStack(Material.DIAMOND, 3);
+            case HIT_VARIANT -> {
+                ItemStack item = new ItemStack(Material.DIAMOND_SWORD);
+                ItemMeta meta = item.getItemMeta();
+                meta.setCustomModelData(1001);
+                meta.getPersistentDataContainer().set(plugin.getRemappedKey(), PersistentDataType.INTEGER, 12345);
+                item.setItemMeta(meta);
+                yield item;
+            }
+            case UP_TO_DATE -> {
+                ItemStack item = new ItemStack(Material.DIAMOND, 3);
+                stackRemapper.remap(item);
+                yield item;
+            }
+            case PLAYER_RENAMED -> {
+                ItemStack item = new ItemStack(Material.DIAMOND, 3);
+                ItemMeta meta = item.getItemMeta();
+                meta.setDisplayName("Mein Diamant");
+                item.setItemMeta(meta);
+                yield item;
+            }
+        };
+    }
+
+    @Benchmark
+    public boolean remapItem() {
+        return stackRemapper.remap(template.clone());
+    }
+
+    @Benchmark
+    public ItemStack cloneBaseline() {
+        return template.clone();
+    }
+
+    @Benchmark
+    public ItemRemapperPlugin.ItemRemap configLookup() {
+        return plugin.getItemRemap(template);
+    }
+}
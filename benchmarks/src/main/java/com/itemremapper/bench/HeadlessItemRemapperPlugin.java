@@ -0,0 +1,12 @@
+package com.itemremapper.bench;
+
+import com.itemremapper.ItemRemapperPlugin;
+
+/**
+ * The plugin as defined by {@link HeadlessPluginClassLoader}. Paper's JavaPlugin
+ * constructor only accepts instances whose class comes from a plugin class loader,
+ * so this empty subclass is the only class that loader defines itself; the plugin
+ * classes stay with the application class loader the benchmarks use.
+ */
+public class HeadlessItemRemapperPlugin extends ItemRemapperPlugin {
+}
@@ -0,0 +1,54 @@
+package com.itemremapper.bench;
+
+import com.itemremapper.ItemRemapperPlugin;
+import org.bukkit.plugin.PluginDescriptionFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Loads and enables ItemRemapper on the {@link HeadlessServer} with a given config,
+ * in a temporary data folder
+ */
+public final class HeadlessPlugin {
+
+    private HeadlessPlugin() {
+    }
+
+    /**
+     * Enables the plugin with a config.yml from the classpath
+     *
+     * @param server The installed headless server
+     * @param configResource Classpath resource used as config.yml
+     * @return The enabled plugin
+     */
+    public static ItemRemapperPlugin enable(HeadlessServer server, String configResource) {
+        try {
+            Path dataFolder = Files.createTempDirectory("itemremapper-headless");
+            try (InputStream in = HeadlessPlugin.class.getClassLoader().getResourceAsStream(configResource)) {
+                if (in == null) {
+                    throw new IllegalArgumentException("Missing config resource " + configResource);
+                }
+                Files.copy(in, dataFolder.resolve("config.yml"), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            PluginDescriptionFile description = new PluginDescriptionFile("ItemRemapper", "headless",
+                    ItemRemapperPlugin.class.getName());
+            HeadlessPluginClassLoader loader = new HeadlessPluginClassLoader(HeadlessPlugin.class.getClassLoader(),
+                    server.getServer(), description, dataFolder.toFile(), dataFolder.resolve("ItemRemapper.jar").toFile());
+            ItemRemapperPlugin plugin = (ItemRemapperPlugin) loader.loadClass(HeadlessItemRemapperPlugin.class.getName())
+                    .getDeclaredConstructor().newInstance();
+            plugin.onLoad();
+            plugin.onEnable();
+            return plugin;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create the plugin", e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.itemremapper.bench;
+
+import io.papermc.paper.plugin.configuration.PluginMeta;
+import io.papermc.paper.plugin.provider.classloader.ConfiguredPluginClassLoader;
+import io.papermc.paper.plugin.provider.classloader.PluginClassLoaderGroup;
+import org.bukkit.Server;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.logging.Logger;
+
+/**
+ * Plugin class loader for {@link HeadlessItemRemapperPlugin}: defines that one
+ * class and delegates everything else to its parent. When the plugin is constructed,
+ * Paper's JavaPlugin calls back into {@link #init(JavaPlugin)}, which hands it the
+ * stub server, description and data folder.
+ */
+final class HeadlessPluginClassLoader extends ClassLoader implements ConfiguredPluginClassLoader {
+
+    private static final String PLUGIN_CLASS = HeadlessItemRemapperPlugin.class.getName();
+
+    private final Server server;
+    private final PluginDescriptionFile description;
+    private final File dataFolder;
+    private final File file;
+    private JavaPlugin plugin;
+
+    HeadlessPluginClassLoader(ClassLoader parent, Server server, PluginDescriptionFile description, File dataFolder, File file) {
+        super(parent);
+        this.server = server;
+        this.description = description;
+        this.dataFolder = dataFolder;
+        this.file = file;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!PLUGIN_CLASS.equals(name)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded == null) {
+                String resource = name.replace('.', '/') + ".class";
+                try (InputStream in = getParent().getResourceAsStream(resource)) {
+                    if (in == null) {
+                        throw new ClassNotFoundException(name);
+                    }
+                    byte[] bytes = in.readAllBytes();
+                    loaded = defineClass(name, bytes, 0, bytes.length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            if (resolve) {
+                resolveClass(loaded);
+            }
+            return loaded;
+        }
+    }
+
+    @Override
+    public Class<?> loadClass(String name, boolean resolve, boolean checkGlobal, boolean checkLibraries) throws ClassNotFoundException {
+        return loadClass(name, resolve);
+    }
+
+    @Override
+    public void init(JavaPlugin plugin) {
+        this.plugin = plugin;
+        plugin.init(server, description, dataFolder, file, this, description, Logger.getLogger(description.getName()));
+    }
+
+    @Override
+    public PluginMeta getConfiguration() {
+        return description;
+    }
+
+    @Override
+    public JavaPlugin getPlugin() {
+        return plugin;
+    }
+
+    @Override
+    public PluginClassLoaderGroup getGroup() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+    }
+}
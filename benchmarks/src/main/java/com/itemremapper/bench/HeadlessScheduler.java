@@ -0,0 +1,315 @@
+package com.itemremapper.bench;
+
+import io.papermc.paper.threadedregions.scheduler.EntityScheduler;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Manually ticked scheduler behind all Folia scheduler interfaces. Region, global,
+ * entity and async tasks share one queue and run on the thread calling {@link #tick()},
+ * so a simulation is deterministic and can count exactly what the plugin schedules.
+ * Async delays are converted to ticks of 50 ms.
+ */
+public final class HeadlessScheduler {
+
+    private static final long MILLIS_PER_TICK = 50L;
+
+    private final PriorityQueue<Task> queue = new PriorityQueue<>(
+            Comparator.comparingLong((Task task) -> task.dueTick).thenComparingLong(task -> task.sequence));
+    private long currentTick;
+    private long nextSequence;
+    private long scheduledCount;
+    private long executedCount;
+
+    /**
+     * Creates a view of this scheduler as one of the Folia scheduler interfaces
+     *
+     * @param type GlobalRegionScheduler, RegionScheduler, AsyncScheduler or EntityScheduler
+     * @return The scheduler proxy
+     */
+    public <T> T as(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, new Dispatch(type)));
+    }
+
+    /**
+     * Creates the entity scheduler of one entity. Tasks of a removed entity are
+     * retired instead of run, like on Folia.
+     *
+     * @param removed Checked before each run, true once the entity is gone
+     * @return The scheduler proxy
+     */
+    public EntityScheduler entityScheduler(BooleanSupplier removed) {
+        return (EntityScheduler) Proxy.newProxyInstance(EntityScheduler.class.getClassLoader(),
+                new Class<?>[] {EntityScheduler.class}, new Dispatch(EntityScheduler.class, removed));
+    }
+
+    /**
+     * Advances one tick and runs every task due
+     *
+     * @return The number of tasks run
+     */
+    public int tick() {
+        List<Task> due = new ArrayList<>();
+        synchronized (this) {
+            currentTick++;
+            while (!queue.isEmpty() && queue.peek().dueTick <= currentTick) {
+                due.add(queue.poll());
+            }
+        }
+        int ran = 0;
+        for (Task task : due) {
+            if (task.runIfLive()) {
+                ran++;
+            }
+        }
+        synchronized (this) {
+            executedCount += ran;
+        }
+        return ran;
+    }
+
+    /**
+     * Runs the given number of ticks
+     *
+     * @return The number of tasks run
+     */
+    public long tick(int ticks) {
+        long ran = 0;
+        for (int i = 0; i < ticks; i++) {
+            ran += tick();
+        }
+        return ran;
+    }
+
+    public synchronized long getCurrentTick() {
+        return currentTick;
+    }
+
+    public synchronized long getScheduledCount() {
+        return scheduledCount;
+    }
+
+    public synchronized long getExecutedCount() {
+        return executedCount;
+    }
+
+    public synchronized int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Drops all queued tasks, e.g. between benchmark iterations
+     */
+    public synchronized void clear() {
+        queue.forEach(task -> task.state = ScheduledTask.ExecutionState.CANCELLED);
+        queue.clear();
+    }
+
+    private synchronized Task schedule(Plugin plugin, Object body, Runnable retired, BooleanSupplier removed,
+                                       long delayTicks, long periodTicks) {
+        Task task = new Task(plugin, body, retired, removed, periodTicks);
+        task.dueTick = currentTick + Math.max(1L, delayTicks);
+        task.sequence = nextSequence++;
+        scheduledCount++;
+        queue.add(task);
+        return task;
+    }
+
+    private synchronized void reschedule(Task task) {
+        task.dueTick = currentTick + task.periodTicks;
+        task.sequence = nextSequence++;
+        queue.add(task);
+    }
+
+    private synchronized void cancelAll(Plugin plugin) {
+        queue.removeIf(task -> {
+            if (task.plugin == plugin) {
+                task.state = ScheduledTask.ExecutionState.CANCELLED;
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Maps every scheduling method onto the queue: the first Runnable or Consumer is
+     * the task, the long arguments after it are delay and period
+     */
+    private final class Dispatch implements InvocationHandler {
+        private final Class<?> type;
+        private final BooleanSupplier removed;
+
+        Dispatch(Class<?> type) {
+            this(type, () -> false);
+        }
+
+        Dispatch(Class<?> type, BooleanSupplier removed) {
+            this.type = type;
+            this.removed = removed;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Headless" + type.getSimpleName();
+                case "cancelTasks":
+                    cancelAll((Plugin) args[0]);
+                    return null;
+                default:
+                    break;
+            }
+            if (args == null) {
+                return Defaults.of(method.getReturnType());
+            }
+
+            Plugin plugin = null;
+            Object body = null;
+            Runnable retired = null;
+            List<Long> times = new ArrayList<>(2);
+            TimeUnit unit = null;
+            for (Object arg : args) {
+                if (arg instanceof Plugin owner && plugin == null) {
+                    plugin = owner;
+                } else if ((arg instanceof Runnable || arg instanceof Consumer) && body == null) {
+                    body = arg;
+                } else if (arg instanceof Runnable runnable && body != null) {
+                    retired = runnable;
+                } else if (arg instanceof Long value && body != null) {
+                    times.add(value);
+                } else if (arg instanceof TimeUnit timeUnit) {
+                    unit = timeUnit;
+                }
+            }
+            if (body == null) {
+                return Defaults.of(method.getReturnType());
+            }
+
+            long delay = times.isEmpty() ? 1L : toTicks(times.get(0), unit);
+            long period = times.size() > 1 ? Math.max(1L, toTicks(times.get(1), unit)) : 0L;
+            if (removed.getAsBoolean()) {
+                // Folia refuses to schedule on a removed entity
+                return method.getReturnType() == boolean.class ? false : null;
+            }
+            Task task = schedule(plugin, body, retired, removed, delay, period);
+            if (method.getReturnType() == boolean.class) {
+                return true;
+            }
+            return method.getReturnType() == void.class ? null : task;
+        }
+
+        private long toTicks(long time, TimeUnit unit) {
+            return unit == null ? time : Math.max(1L, unit.toMillis(time) / MILLIS_PER_TICK);
+        }
+    }
+
+    private final class Task implements ScheduledTask {
+        final Plugin plugin;
+        final Object body;
+        final Runnable retired;
+        final BooleanSupplier removed;
+        final long periodTicks;
+        long dueTick;
+        long sequence;
+        volatile ExecutionState state = ExecutionState.IDLE;
+
+        Task(Plugin plugin, Object body, Runnable retired, BooleanSupplier removed, long periodTicks) {
+            this.plugin = plugin;
+            this.body = body;
+            this.retired = retired;
+            this.removed = removed;
+            this.periodTicks = periodTicks;
+        }
+
+        @SuppressWarnings("unchecked")
+        boolean runIfLive() {
+            if (state != ExecutionState.IDLE) {
+                return false;
+            }
+            if (removed.getAsBoolean()) {
+                state = ExecutionState.CANCELLED;
+                if (retired != null) {
+                    retired.run();
+                }
+                return false;
+            }
+            state = ExecutionState.RUNNING;
+            try {
+                if (body instanceof Consumer<?> consumer) {
+                    ((Consumer<ScheduledTask>) consumer).accept(this);
+                } else {
+                    ((Runnable) body).run();
+                }
+            } finally {
+                if (state == ExecutionState.CANCELLED_RUNNING) {
+                    state = ExecutionState.CANCELLED;
+                } else if (periodTicks > 0) {
+                    state = ExecutionState.IDLE;
+                    reschedule(this);
+                } else {
+                    state = ExecutionState.FINISHED;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Plugin getOwningPlugin() {
+            return plugin;
+        }
+
+        @Override
+        public boolean isRepeatingTask() {
+            return periodTicks > 0;
+        }
+
+        @Override
+        public CancelledState cancel() {
+            switch (state) {
+                case IDLE -> {
+                    state = ExecutionState.CANCELLED;
+                    synchronized (HeadlessScheduler.this) {
+                        queue.remove(this);
+                    }
+                    return CancelledState.CANCELLED_BY_CALLER;
+                }
+                case RUNNING -> {
+                    if (periodTicks > 0) {
+                        state = ExecutionState.CANCELLED_RUNNING;
+                        return CancelledState.NEXT_RUNS_CANCELLED;
+                    }
+                    return CancelledState.RUNNING;
+                }
+                case FINISHED -> {
+                    return CancelledState.ALREADY_EXECUTED;
+                }
+                case CANCELLED_RUNNING -> {
+                    return CancelledState.NEXT_RUNS_CANCELLED_ALREADY;
+                }
+                default -> {
+                    return CancelledState.CANCELLED_ALREADY;
+                }
+            }
+        }
+
+        @Override
+        public ExecutionState getExecutionState() {
+            return state;
+        }
+    }
+}
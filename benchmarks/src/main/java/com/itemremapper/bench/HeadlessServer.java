@@ -0,0 +1,262 @@
+package com.itemremapper.bench;
+
+import io.papermc.paper.threadedregions.scheduler.AsyncScheduler;
+import io.papermc.paper.threadedregions.scheduler.GlobalRegionScheduler;
+import io.papermc.paper.threadedregions.scheduler.RegionScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+/**
+ * Minimal in-process Server for running the plugin without Minecraft: item factory
+ * and metas from {@link StubItemMeta}, schedulers from {@link HeadlessScheduler},
+ * and a plugin manager that dispatches events to registered listeners directly.
+ * Anything else answers with an empty default.
+ */
+public final class HeadlessServer implements InvocationHandler {
+
+    private static HeadlessServer installed;
+
+    private final Logger logger = Logger.getLogger("HeadlessServer");
+    private final HeadlessScheduler scheduler = new HeadlessScheduler();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<Class<?>, List<Handler>> handlers = new ConcurrentHashMap<>();
+    private final List<Player> players = new CopyOnWriteArrayList<>();
+    private final List<World> worlds = new CopyOnWriteArrayList<>();
+
+    private final Server server;
+    private final ItemFactory itemFactory;
+    private final PluginManager pluginManager;
+    private final GlobalRegionScheduler globalRegionScheduler;
+    private final RegionScheduler regionScheduler;
+    private final AsyncScheduler asyncScheduler;
+
+    private HeadlessServer() {
+        this.server = proxy(Server.class, this);
+        this.itemFactory = proxy(ItemFactory.class, this::invokeItemFactory);
+        this.pluginManager = proxy(PluginManager.class, this::invokePluginManager);
+        this.globalRegionScheduler = scheduler.as(GlobalRegionScheduler.class);
+        this.regionScheduler = scheduler.as(RegionScheduler.class);
+        this.asyncScheduler = scheduler.as(AsyncScheduler.class);
+    }
+
+    /**
+     * Installs the headless server as the Bukkit server. Bukkit accepts one server
+     * per JVM, so every caller shares the same instance.
+     *
+     * @return The installed server
+     */
+    public static synchronized HeadlessServer install() {
+        if (installed == null) {
+            installed = new HeadlessServer();
+            Bukkit.setServer(installed.server);
+        }
+        return installed;
+    }
+
+    public Server getServer() {
+        return server;
+    }
+
+    public HeadlessScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public List<Listener> getListeners() {
+        return List.copyOf(listeners);
+    }
+
+    public void addPlayer(Player player) {
+        players.add(player);
+    }
+
+    public void removePlayer(Player player) {
+        players.remove(player);
+    }
+
+    public void addWorld(World world) {
+        worlds.add(world);
+    }
+
+    /**
+     * Calls the event on all registered listeners in priority order, skipping
+     * ignoreCancelled handlers once the event is cancelled
+     *
+     * @param event The event
+     * @return The same event, for checking its outcome
+     */
+    public <T extends Event> T callEvent(T event) {
+        for (Handler handler : handlers.computeIfAbsent(event.getClass(), this::findHandlers)) {
+            if (handler.ignoreCancelled && event instanceof Cancellable cancellable && cancellable.isCancelled()) {
+                continue;
+            }
+            try {
+                handler.method.invoke(handler.listener, event);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException("Listener " + handler.listener.getClass().getSimpleName()
+                        + " failed on " + event.getEventName(), e.getCause());
+            }
+        }
+        return event;
+    }
+
+    private List<Handler> findHandlers(Class<?> eventType) {
+        List<Handler> found = new ArrayList<>();
+        for (Listener listener : listeners) {
+            for (Method method : listener.getClass().getDeclaredMethods()) {
+                EventHandler annotation = method.getAnnotation(EventHandler.class);
+                if (annotation == null || method.getParameterCount() != 1
+                        || !method.getParameterTypes()[0].isAssignableFrom(eventType)) {
+                    continue;
+                }
+                method.setAccessible(true);
+                found.add(new Handler(listener, method, annotation.priority().getSlot(), annotation.ignoreCancelled()));
+            }
+        }
+        found.sort(Comparator.comparingInt(handler -> handler.priority));
+        return found;
+    }
+
+    private record Handler(Listener listener, Method method, int priority, boolean ignoreCancelled) {
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getLogger":
+                return logger;
+            case "getName":
+                return "HeadlessServer";
+            case "getVersion":
+                return "headless";
+            case "getBukkitVersion":
+                return "1.21.1-R0.1-SNAPSHOT";
+            case "getMinecraftVersion":
+                return "1.21.1";
+            case "getItemFactory":
+                return itemFactory;
+            case "createBlockData":
+                return args[0] instanceof Material material
+                        ? StubWorld.blockData(material, args.length > 1 ? (String) args[1] : null) : null;
+            case "getPluginManager":
+                return pluginManager;
+            case "getGlobalRegionScheduler":
+                return globalRegionScheduler;
+            case "getRegionScheduler":
+                return regionScheduler;
+            case "getAsyncScheduler":
+                return asyncScheduler;
+            case "getOnlinePlayers":
+                return List.copyOf(players);
+            case "getPlayer":
+                return args[0] instanceof UUID uuid ? findPlayer(uuid) : null;
+            case "getWorlds":
+                return List.copyOf(worlds);
+            case "getWorld":
+                return findWorld(args[0]);
+            case "isPrimaryThread":
+                return true;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "HeadlessServer";
+            default:
+                return Defaults.of(method.getReturnType());
+        }
+    }
+
+    private Player findPlayer(UUID uuid) {
+        for (Player player : players) {
+            if (player.getUniqueId().equals(uuid)) {
+                return player;
+            }
+        }
+        return null;
+    }
+
+    private World findWorld(Object key) {
+        for (World world : worlds) {
+            if (world.getName().equals(key) || world.getUID().equals(key)) {
+                return world;
+            }
+        }
+        return null;
+    }
+
+    private Object invokeItemFactory(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getItemMeta":
+                return args[0] == Material.AIR ? null : StubItemMeta.create();
+            case "isApplicable":
+                return true;
+            case "asMetaFor":
+                return args[0];
+            case "updateMaterial":
+                return args[1];
+            case "equals":
+                if (args.length == 2) {
+                    return StubItemMeta.sameContent((ItemMeta) args[0], (ItemMeta) args[1]);
+                }
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "HeadlessItemFactory";
+            default:
+                return Defaults.of(method.getReturnType());
+        }
+    }
+
+    private Object invokePluginManager(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "registerEvents":
+                listeners.add((Listener) args[0]);
+                handlers.clear();
+                return null;
+            case "callEvent":
+                callEvent((Event) args[0]);
+                return null;
+            case "getPlugins":
+                return new Plugin[0];
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "HeadlessPluginManager";
+            default:
+                return Defaults.of(method.getReturnType());
+        }
+    }
+
+    static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+}
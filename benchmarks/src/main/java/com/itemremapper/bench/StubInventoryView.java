@@ -0,0 +1,76 @@
+package com.itemremapper.bench;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * A chest view over a plain slot array, enough to build InventoryClickEvents.
+ * Both halves of the view share the array; the simulation only clicks the top.
+ */
+public final class StubInventoryView extends InventoryView {
+
+    private static final int SIZE = 27;
+
+    private final HumanEntity player;
+    private final ItemStack[] slots = new ItemStack[SIZE];
+    private final Inventory inventory;
+
+    public StubInventoryView(HumanEntity player) {
+        this.player = player;
+        this.inventory = HeadlessServer.proxy(Inventory.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getSize" -> SIZE;
+            case "getType" -> InventoryType.CHEST;
+            case "getItem" -> slots[(Integer) args[0]];
+            case "setItem" -> {
+                slots[(Integer) args[0]] = (ItemStack) args[1];
+                yield null;
+            }
+            case "getContents", "getStorageContents" -> slots.clone();
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "StubInventory";
+            default -> Defaults.of(method.getReturnType());
+        });
+    }
+
+    public void setSlot(int slot, ItemStack item) {
+        slots[slot] = item;
+    }
+
+    @Override
+    public Inventory getTopInventory() {
+        return inventory;
+    }
+
+    @Override
+    public Inventory getBottomInventory() {
+        return inventory;
+    }
+
+    @Override
+    public HumanEntity getPlayer() {
+        return player;
+    }
+
+    @Override
+    public InventoryType getType() {
+        return InventoryType.CHEST;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Chest";
+    }
+
+    @Override
+    public String getOriginalTitle() {
+        return "Chest";
+    }
+
+    @Override
+    public void setTitle(String title) {
+    }
+}
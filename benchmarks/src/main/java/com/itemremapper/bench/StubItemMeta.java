@@ -0,0 +1,160 @@
+package com.itemremapper.bench;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * In-memory ItemMeta covering what the plugin touches: name, lore, custom model data,
+ * enchantments and the persistent data container. Cloning copies all of them, like
+ * CraftMetaItem does, so benchmarks see the allocation a real getItemMeta causes.
+ */
+public final class StubItemMeta implements InvocationHandler {
+
+    private static final LegacyComponentSerializer LEGACY = LegacyComponentSerializer.legacySection();
+
+    private Component displayName;
+    private List<Component> lore;
+    private Integer customModelData;
+    private final Map<Enchantment, Integer> enchants = new LinkedHashMap<>();
+    private final StubPersistentDataContainer data = new StubPersistentDataContainer();
+    private PersistentDataContainer dataProxy;
+
+    private StubItemMeta() {
+    }
+
+    /**
+     * Creates an empty meta
+     *
+     * @return The meta proxy
+     */
+    public static ItemMeta create() {
+        return new StubItemMeta().proxy();
+    }
+
+    private ItemMeta proxy() {
+        return (ItemMeta) Proxy.newProxyInstance(ItemMeta.class.getClassLoader(), new Class<?>[] {ItemMeta.class}, this);
+    }
+
+    /**
+     * Checks if a meta carries no data, the way ItemFactory#equals(meta, null) decides
+     * whether an ItemStack has meta at all
+     *
+     * @param meta The meta, may be null
+     * @return true if null or empty
+     */
+    public static boolean isEmpty(ItemMeta meta) {
+        if (meta == null) {
+            return true;
+        }
+        StubItemMeta stub = (StubItemMeta) Proxy.getInvocationHandler(meta);
+        return stub.displayName == null && (stub.lore == null || stub.lore.isEmpty()) && stub.customModelData == null
+                && stub.enchants.isEmpty() && stub.data.isEmpty();
+    }
+
+    /**
+     * Compares two metas by content, null being equal to an empty meta
+     *
+     * @return true if both carry the same data
+     */
+    public static boolean sameContent(ItemMeta first, ItemMeta second) {
+        if (first == null || second == null) {
+            return isEmpty(first) && isEmpty(second);
+        }
+        StubItemMeta a = (StubItemMeta) Proxy.getInvocationHandler(first);
+        StubItemMeta b = (StubItemMeta) Proxy.getInvocationHandler(second);
+        return Objects.equals(a.displayName, b.displayName) && Objects.equals(a.lore, b.lore)
+                && Objects.equals(a.customModelData, b.customModelData) && a.enchants.equals(b.enchants)
+                && a.data.sameContent(b.data);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        int arity = args == null ? 0 : args.length;
+        switch (method.getName()) {
+            case "displayName":
+                if (arity == 0) {
+                    return displayName;
+                }
+                displayName = (Component) args[0];
+                return null;
+            case "hasDisplayName":
+                return displayName != null;
+            case "getDisplayName":
+                return displayName != null ? LEGACY.serialize(displayName) : null;
+            case "setDisplayName":
+                displayName = args[0] != null ? LEGACY.deserialize((String) args[0]) : null;
+                return null;
+            case "lore":
+                if (arity == 0) {
+                    return lore != null ? new ArrayList<>(lore) : null;
+                }
+                lore = args[0] != null ? new ArrayList<>((List<Component>) args[0]) : null;
+                return null;
+            case "hasLore":
+                return lore != null && !lore.isEmpty();
+            case "getLore":
+                return lore != null ? lore.stream().map(LEGACY::serialize).toList() : null;
+            case "setLore":
+                lore = args[0] != null ? ((List<String>) args[0]).stream().map(line -> (Component) LEGACY.deserialize(line)).toList() : null;
+                return null;
+            case "hasCustomModelData":
+                return customModelData != null;
+            case "getCustomModelData":
+                return customModelData != null ? customModelData : 0;
+            case "setCustomModelData":
+                customModelData = (Integer) args[0];
+                return null;
+            case "hasEnchants":
+                return !enchants.isEmpty();
+            case "getEnchants":
+                return Map.copyOf(enchants);
+            case "hasEnchant":
+                return enchants.containsKey((Enchantment) args[0]);
+            case "getEnchantLevel":
+                return enchants.getOrDefault((Enchantment) args[0], 0);
+            case "addEnchant":
+                return !Objects.equals(enchants.put((Enchantment) args[0], (Integer) args[1]), args[1]);
+            case "removeEnchant":
+                return enchants.remove((Enchantment) args[0]) != null;
+            case "getPersistentDataContainer":
+                if (dataProxy == null) {
+                    dataProxy = data.proxy();
+                }
+                return dataProxy;
+            case "clone":
+                return copy().proxy();
+            case "equals":
+                return args[0] instanceof ItemMeta other && Proxy.isProxyClass(other.getClass())
+                        && sameContent((ItemMeta) proxy, other);
+            case "hashCode":
+                return Objects.hash(displayName, lore, customModelData, enchants);
+            case "toString":
+                return "StubItemMeta{name=" + displayName + ", lore=" + lore + ", data=" + data + "}";
+            default:
+                return Defaults.of(method.getReturnType());
+        }
+    }
+
+    private StubItemMeta copy() {
+        StubItemMeta copy = new StubItemMeta();
+        copy.displayName = displayName;
+        copy.lore = lore != null ? new ArrayList<>(lore) : null;
+        copy.customModelData = customModelData;
+        copy.enchants.putAll(enchants);
+        copy.data.copyFrom(data);
+        return copy;
+    }
+}
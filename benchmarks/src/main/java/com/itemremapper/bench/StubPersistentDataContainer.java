@@ -0,0 +1,76 @@
+package com.itemremapper.bench;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map-backed PersistentDataContainer. Values are stored in their complex type;
+ * get and has only match when the requested type's complex type fits.
+ */
+final class StubPersistentDataContainer implements InvocationHandler {
+
+    private final Map<NamespacedKey, Object> values = new HashMap<>();
+
+    PersistentDataContainer proxy() {
+        return (PersistentDataContainer) Proxy.newProxyInstance(PersistentDataContainer.class.getClassLoader(),
+                new Class<?>[] {PersistentDataContainer.class}, this);
+    }
+
+    boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    boolean sameContent(StubPersistentDataContainer other) {
+        return values.equals(other.values);
+    }
+
+    void copyFrom(StubPersistentDataContainer other) {
+        values.putAll(other.values);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "set":
+                values.put((NamespacedKey) args[0], args[2]);
+                return null;
+            case "has":
+                return args.length == 1 ? values.containsKey(args[0]) : read(args) != null;
+            case "get":
+                return read(args);
+            case "getOrDefault": {
+                Object value = read(args);
+                return value != null ? value : args[2];
+            }
+            case "remove":
+                values.remove((NamespacedKey) args[0]);
+                return null;
+            case "getKeys":
+                return Set.copyOf(values.keySet());
+            case "isEmpty":
+                return values.isEmpty();
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return values.toString();
+            default:
+                return Defaults.of(method.getReturnType());
+        }
+    }
+
+    private Object read(Object[] args) {
+        Object value = values.get((NamespacedKey) args[0]);
+        PersistentDataType<?, ?> type = (PersistentDataType<?, ?>) args[1];
+        return type.getComplexType().isInstance(value) ? value : null;
+    }
+}
@@ -0,0 +1,152 @@
+package com.itemremapper.bench;
+
+import io.papermc.paper.threadedregions.scheduler.EntityScheduler;
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.UUID;
+
+/**
+ * A player that stands somewhere, holds a cursor stack and counts the sounds and
+ * messages the plugin sends it. Its entity scheduler retires tasks once it quit.
+ */
+public final class StubPlayer implements InvocationHandler {
+
+    private final UUID uuid = UUID.randomUUID();
+    private final String name;
+    private final StubWorld world;
+    private final Player player;
+    private final EntityScheduler scheduler;
+    private final Player.Spigot spigot;
+    private volatile boolean online = true;
+    private double x;
+    private double y;
+    private double z;
+    private ItemStack cursor = new ItemStack(Material.AIR);
+
+    private long soundsPlayed;
+    private long soundsStopped;
+    private long messagesReceived;
+
+    public StubPlayer(String name, StubWorld world, HeadlessScheduler headlessScheduler, double x, double y, double z) {
+        this.name = name;
+        this.world = world;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.player = HeadlessServer.proxy(Player.class, this);
+        this.scheduler = headlessScheduler.entityScheduler(() -> !online);
+        this.spigot = new Player.Spigot() {
+            @Override
+            public void sendMessage(ChatMessageType position, BaseComponent component) {
+                messagesReceived++;
+            }
+
+            @Override
+            public void sendMessage(ChatMessageType position, BaseComponent... components) {
+                messagesReceived++;
+            }
+        };
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public void moveTo(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public void setCursor(ItemStack cursor) {
+        this.cursor = cursor != null ? cursor : new ItemStack(Material.AIR);
+    }
+
+    public void quit() {
+        online = false;
+    }
+
+    public long getSoundsPlayed() {
+        return soundsPlayed;
+    }
+
+    public long getSoundsStopped() {
+        return soundsStopped;
+    }
+
+    public long getMessagesReceived() {
+        return messagesReceived;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getUniqueId":
+                return uuid;
+            case "getName":
+                return name;
+            case "getType":
+                return EntityType.PLAYER;
+            case "getWorld":
+                return world.getWorld();
+            case "getLocation":
+                if (args != null && args.length == 1 && args[0] instanceof Location target) {
+                    target.setWorld(world.getWorld());
+                    target.setX(x);
+                    target.setY(y);
+                    target.setZ(z);
+                    return target;
+                }
+                return new Location(world.getWorld(), x, y, z);
+            case "getScheduler":
+                return scheduler;
+            case "isOnline":
+            case "isValid":
+                return online;
+            case "getLocale":
+                return "de_de";
+            case "getItemOnCursor":
+                return cursor;
+            case "setItemOnCursor":
+                setCursor((ItemStack) args[0]);
+                return null;
+            case "playSound":
+                soundsPlayed++;
+                return null;
+            case "stopSound":
+            case "stopAllSounds":
+                soundsStopped++;
+                return null;
+            case "sendMessage":
+            case "sendActionBar":
+                messagesReceived++;
+                return null;
+            case "spigot":
+                return spigot;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return uuid.hashCode();
+            case "toString":
+                return "StubPlayer{" + name + "}";
+            default:
+                return Defaults.of(method.getReturnType());
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.itemremapper.bench;
+
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Jukebox;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A world holding only what the simulation places: jukeboxes in loaded chunks.
+ * Every other block reads as air. Blocks, chunks and block states are proxies created
+ * on demand, the way CraftBukkit hands out fresh wrappers.
+ */
+public final class StubWorld implements InvocationHandler {
+
+    private final String name;
+    private final UUID uid = UUID.randomUUID();
+    private final World world;
+    private final Map<Long, StubJukebox> jukeboxes = new HashMap<>();
+    private final Map<Long, List<StubJukebox>> jukeboxesByChunk = new HashMap<>();
+    private final List<Player> players = new CopyOnWriteArrayList<>();
+
+    public StubWorld(String name) {
+        this.name = name;
+        this.world = HeadlessServer.proxy(World.class, this);
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public void addPlayer(Player player) {
+        players.add(player);
+    }
+
+    public void removePlayer(Player player) {
+        players.remove(player);
+    }
+
+    /**
+     * Places a jukebox; its chunk counts as loaded from then on
+     *
+     * @return The jukebox, whose record the simulation changes directly like a hopper would
+     */
+    public StubJukebox placeJukebox(int x, int y, int z) {
+        StubJukebox jukebox = new StubJukebox(x, y, z);
+        jukeboxes.put(blockKey(x, y, z), jukebox);
+        jukeboxesByChunk.computeIfAbsent(chunkKey(x >> 4, z >> 4), key -> new ArrayList<>()).add(jukebox);
+        return jukebox;
+    }
+
+    public List<StubJukebox> getJukeboxes() {
+        return new ArrayList<>(jukeboxes.values());
+    }
+
+    /**
+     * Creates a dropped item entity for pickup events; it is not tracked by the world
+     *
+     * @param stack The stack the entity carries
+     * @return The item entity
+     */
+    public Item spawnItem(ItemStack stack, double x, double y, double z) {
+        UUID id = UUID.randomUUID();
+        return HeadlessServer.proxy(Item.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getItemStack" -> stack;
+            case "getType" -> EntityType.DROPPED_ITEM;
+            case "getUniqueId" -> id;
+            case "getWorld" -> world;
+            case "getLocation" -> new Location(world, x, y, z);
+            case "isValid" -> true;
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> id.hashCode();
+            case "toString" -> "StubItem{" + stack.getType() + "}";
+            default -> Defaults.of(method.getReturnType());
+        });
+    }
+
+    private static long blockKey(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFF) << 38 | ((long) z & 0x3FFFFFF) << 12 | (y & 0xFFF);
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return (long) chunkX << 32 | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getName":
+                return name;
+            case "getUID":
+                return uid;
+            case "getPlayers":
+                return new ArrayList<>(players);
+            case "getNearbyPlayers": {
+                // Cube around the location, like the server's bounding box query
+                Location center = (Location) args[0];
+                double radius = (Double) args[1];
+                List<Player> nearby = new ArrayList<>();
+                for (Player player : players) {
+                    Location location = player.getLocation();
+                    if (Math.abs(location.getX() - center.getX()) <= radius
+                            && Math.abs(location.getY() - center.getY()) <= radius
+                            && Math.abs(location.getZ() - center.getZ()) <= radius) {
+                        nearby.add(player);
+                    }
+                }
+                return nearby;
+            }
+            case "getLoadedChunks": {
+                List<Chunk> chunks = new ArrayList<>();
+                for (long key : jukeboxesByChunk.keySet()) {
+                    chunks.add(chunk((int) (key >> 32), (int) key));
+                }
+                return chunks.toArray(new Chunk[0]);
+            }
+            case "isChunkLoaded":
+                if (args.length == 2) {
+                    return jukeboxesByChunk.containsKey(chunkKey((Integer) args[0], (Integer) args[1]));
+                }
+                return ((Chunk) args[0]).isLoaded();
+            case "getChunkAt":
+                if (args[0] instanceof Location location) {
+                    return chunk(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+                }
+                if (args[0] instanceof Block block) {
+                    return chunk(block.getX() >> 4, block.getZ() >> 4);
+                }
+                return chunk((Integer) args[0], (Integer) args[1]);
+            case "getBlockAt":
+                if (args[0] instanceof Location location) {
+                    return block(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+                }
+                return block((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+            case "getMinHeight":
+                return -64;
+            case "getMaxHeight":
+                return 320;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return uid.hashCode();
+            case "toString":
+                return "StubWorld{" + name + "}";
+            default:
+                return Defaults.of(method.getReturnType());
+        }
+    }
+
+    private Chunk chunk(int chunkX, int chunkZ) {
+        long key = chunkKey(chunkX, chunkZ);
+        return HeadlessServer.proxy(Chunk.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getX" -> chunkX;
+            case "getZ" -> chunkZ;
+            case "getWorld" -> world;
+            case "isLoaded" -> jukeboxesByChunk.containsKey(key);
+            case "getBlock" -> block((chunkX << 4) + (Integer) args[0], (Integer) args[1], (chunkZ << 4) + (Integer) args[2]);
+            case "getChunkSnapshot" -> snapshot(chunkX, chunkZ);
+            case "getTileEntities" -> {
+                List<StubJukebox> inChunk = jukeboxesByChunk.getOrDefault(key, List.of());
+                BlockState[] states = new BlockState[inChunk.size()];
+                for (int i = 0; i < states.length; i++) {
+                    states[i] = inChunk.get(i).state();
+                }
+                yield states;
+            }
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> Long.hashCode(key);
+            case "toString" -> "StubChunk{" + chunkX + "," + chunkZ + "}";
+            default -> Defaults.of(method.getReturnType());
+        });
+    }
+
+    /**
+     * Creates a snapshot of a chunk. It reads the live jukeboxes instead of copying them.
+     */
+    private ChunkSnapshot snapshot(int chunkX, int chunkZ) {
+        List<StubJukebox> inChunk = jukeboxesByChunk.getOrDefault(chunkKey(chunkX, chunkZ), List.of());
+        return HeadlessServer.proxy(ChunkSnapshot.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getX" -> chunkX;
+            case "getZ" -> chunkZ;
+            case "getWorldName" -> name;
+            case "contains" -> {
+                BlockData data = (BlockData) args[0];
+                boolean found = false;
+                for (StubJukebox jukebox : inChunk) {
+                    found |= data.getMaterial() == Material.JUKEBOX && blockData(jukebox).equals(data);
+                }
+                yield found;
+            }
+            case "isSectionEmpty" -> {
+                boolean empty = true;
+                for (StubJukebox jukebox : inChunk) {
+                    empty &= (jukebox.y + 64) >> 4 != (Integer) args[0];
+                }
+                yield empty;
+            }
+            case "getBlockType" -> jukeboxes.containsKey(blockKey((chunkX << 4) + (Integer) args[0], (Integer) args[1],
+                    (chunkZ << 4) + (Integer) args[2])) ? Material.JUKEBOX : Material.AIR;
+            case "getBlockData" -> {
+                StubJukebox jukebox = jukeboxes.get(blockKey((chunkX << 4) + (Integer) args[0], (Integer) args[1],
+                        (chunkZ << 4) + (Integer) args[2]));
+                yield jukebox != null ? blockData(jukebox) : blockData(Material.AIR, null);
+            }
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "StubChunkSnapshot{" + chunkX + "," + chunkZ + "}";
+            default -> Defaults.of(method.getReturnType());
+        });
+    }
+
+    private static BlockData blockData(StubJukebox jukebox) {
+        return blockData(Material.JUKEBOX, jukebox.hasRecord() ? "[has_record=true]" : null);
+    }
+
+    /**
+     * Creates block data for a material and optional state. Jukebox data reports
+     * whether it holds a record; equal strings are equal data.
+     *
+     * @param state The state in brackets, as in "[has_record=true]", or null for the default
+     */
+    static BlockData blockData(Material material, String state) {
+        String asString = material.getKey() + (state != null ? state : "");
+        boolean hasRecord = asString.contains("has_record=true");
+        return HeadlessServer.proxy(org.bukkit.block.data.type.Jukebox.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getMaterial" -> material;
+            case "getAsString" -> asString;
+            case "hasRecord" -> hasRecord;
+            case "equals" -> args[0] instanceof BlockData other && asString.equals(other.getAsString());
+            case "hashCode" -> asString.hashCode();
+            case "toString" -> "StubBlockData{" + asString + "}";
+            default -> Defaults.of(method.getReturnType());
+        });
+    }
+
+    private Block block(int x, int y, int z) {
+        StubJukebox jukebox = jukeboxes.get(blockKey(x, y, z));
+        return HeadlessServer.proxy(Block.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getType" -> jukebox != null ? Material.JUKEBOX : Material.AIR;
+            case "getState" -> jukebox != null ? jukebox.state() : null;
+            case "getLocation" -> new Location(world, x, y, z);
+            case "getX" -> x;
+            case "getY" -> y;
+            case "getZ" -> z;
+            case "getWorld" -> world;
+            case "getChunk" -> chunk(x >> 4, z >> 4);
+            case "equals" -> args[0] instanceof Block other && other.getWorld() == world
+                    && other.getX() == x && other.getY() == y && other.getZ() == z;
+            case "hashCode" -> Long.hashCode(blockKey(x, y, z));
+            case "toString" -> "StubBlock{" + x + "," + y + "," + z + "}";
+            default -> Defaults.of(method.getReturnType());
+        });
+    }
+
+    /**
+     * A placed jukebox and its record
+     */
+    public final class StubJukebox {
+        private final int x;
+        private final int y;
+        private final int z;
+        private ItemStack record;
+        private Inventory inventory;
+        private Inventory hopper;
+
+        StubJukebox(int x, int y, int z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        /**
+         * Gets the single-slot inventory hoppers move discs through
+         */
+        public Inventory getInventory() {
+            if (inventory == null) {
+                inventory = HeadlessServer.proxy(Inventory.class, (proxy, method, args) -> switch (method.getName()) {
+                    case "getType" -> InventoryType.JUKEBOX;
+                    case "getSize" -> 1;
+                    case "getLocation" -> getLocation();
+                    case "getItem" -> record;
+                    case "setItem" -> {
+                        setRecord((ItemStack) args[1]);
+                        yield null;
+                    }
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "StubJukeboxInventory{" + x + "," + y + "," + z + "}";
+                    default -> Defaults.of(method.getReturnType());
+                });
+            }
+            return inventory;
+        }
+
+        /**
+         * Gets the inventory of a hopper next to the jukebox, the other side of a transfer
+         */
+        public Inventory getHopperInventory() {
+            if (hopper == null) {
+                hopper = HeadlessServer.proxy(Inventory.class, (proxy, method, args) -> switch (method.getName()) {
+                    case "getType" -> InventoryType.HOPPER;
+                    case "getSize" -> 5;
+                    case "getLocation" -> new Location(world, x, y + 1, z);
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "StubHopperInventory{" + x + "," + (y + 1) + "," + z + "}";
+                    default -> Defaults.of(method.getReturnType());
+                });
+            }
+            return hopper;
+        }
+
+        public Location getLocation() {
+            return new Location(world, x, y, z);
+        }
+
+        public boolean hasRecord() {
+            return record != null;
+        }
+
+        public void setRecord(ItemStack record) {
+            this.record = record;
+        }
+
+        Jukebox state() {
+            return HeadlessServer.proxy(Jukebox.class, (proxy, method, args) -> switch (method.getName()) {
+                case "getRecord" -> record != null ? record.clone() : new ItemStack(Material.AIR);
+                case "setRecord" -> {
+                    record = args[0] != null && ((ItemStack) args[0]).getType() != Material.AIR ? (ItemStack) args[0] : null;
+                    yield null;
+                }
+                case "hasRecord", "isPlaying" -> record != null;
+                case "eject" -> {
+                    boolean had = record != null;
+                    record = null;
+                    yield had;
+                }
+                case "stopPlaying", "update" -> method.getReturnType() == boolean.class ? (Object) true : null;
+                case "getType" -> Material.JUKEBOX;
+                case "getLocation" -> getLocation();
+                case "getBlock" -> block(x, y, z);
+                case "getWorld" -> world;
+                case "getX" -> x;
+                case "getY" -> y;
+                case "getZ" -> z;
+                case "isPlaced" -> true;
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> "StubJukebox{" + x + "," + y + "," + z + "}";
+                default -> Defaults.of(method.getReturnType());
+            });
+        }
+    }
+}
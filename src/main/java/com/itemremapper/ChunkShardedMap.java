@@ -0,0 +1,160 @@
+package com.itemremapper;
+
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Values keyed by packed block position, in one shard per chunk. On Folia a chunk
+ * is owned by one region at a time, so each shard has a single writer: the thread
+ * ticking the chunk's region, or the main thread elsewhere. Writers replace the
+ * shard's entries with a new immutable copy, which any thread reads without locking.
+ * <p>
+ * {@link #put} and {@link #remove} must only be called by the owner of the
+ * position's chunk.
+ *
+ * @param <V> The value type
+ */
+public class ChunkShardedMap<V> {
+
+    private static final Entries EMPTY = new Entries(new long[0], new Object[0]);
+
+    // World UID -> packed chunk key -> shard
+    private final Map<UUID, Map<Long, Shard>> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Immutable entries of a shard, published as a whole
+     */
+    private record Entries(long[] positions, Object[] values) {
+    }
+
+    private static final class Shard {
+        volatile Entries entries = EMPTY;
+    }
+
+    /**
+     * Gets the value at a position
+     *
+     * @return The value, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(World world, long pos) {
+        Shard shard = shard(world, JukeboxIndex.chunkKeyOf(pos));
+        if (shard == null) {
+            return null;
+        }
+        Entries entries = shard.entries;
+        int index = indexOf(entries.positions, pos);
+        return index >= 0 ? (V) entries.values[index] : null;
+    }
+
+    /**
+     * Sets the value at a position. Only called by the owner of its chunk.
+     */
+    public void put(World world, long pos, V value) {
+        Shard shard = worlds.computeIfAbsent(world.getUID(), uid -> new ConcurrentHashMap<>())
+                .computeIfAbsent(JukeboxIndex.chunkKeyOf(pos), key -> new Shard());
+        Entries entries = shard.entries;
+        int index = indexOf(entries.positions, pos);
+        if (index >= 0) {
+            Object[] values = entries.values.clone();
+            values[index] = value;
+            shard.entries = new Entries(entries.positions, values);
+            return;
+        }
+        int size = entries.positions.length;
+        long[] positions = Arrays.copyOf(entries.positions, size + 1);
+        Object[] values = Arrays.copyOf(entries.values, size + 1);
+        positions[size] = pos;
+        values[size] = value;
+        shard.entries = new Entries(positions, values);
+    }
+
+    /**
+     * Removes the value at a position. Only called by the owner of its chunk.
+     *
+     * @return The removed value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(World world, long pos) {
+        Map<Long, Shard> chunks = worlds.get(world.getUID());
+        if (chunks == null) {
+            return null;
+        }
+        long chunkKey = JukeboxIndex.chunkKeyOf(pos);
+        Shard shard = chunks.get(chunkKey);
+        if (shard == null) {
+            return null;
+        }
+        Entries entries = shard.entries;
+        int index = indexOf(entries.positions, pos);
+        if (index < 0) {
+            return null;
+        }
+        V removed = (V) entries.values[index];
+        int size = entries.positions.length - 1;
+        if (size == 0) {
+            shard.entries = EMPTY;
+            chunks.remove(chunkKey, shard);
+            return removed;
+        }
+        long[] positions = new long[size];
+        Object[] values = new Object[size];
+        System.arraycopy(entries.positions, 0, positions, 0, index);
+        System.arraycopy(entries.positions, index + 1, positions, index, size - index);
+        System.arraycopy(entries.values, 0, values, 0, index);
+        System.arraycopy(entries.values, index + 1, values, index, size - index);
+        shard.entries = new Entries(positions, values);
+        return removed;
+    }
+
+    /**
+     * Visits the values of a chunk, as published when the call starts
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachInChunk(World world, int chunkX, int chunkZ, Consumer<V> consumer) {
+        Shard shard = shard(world, JukeboxIndex.chunkKey(chunkX, chunkZ));
+        if (shard == null) {
+            return;
+        }
+        for (Object value : shard.entries.values) {
+            consumer.accept((V) value);
+        }
+    }
+
+    /**
+     * Visits all values. Each shard is read as published when it is visited.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<V> consumer) {
+        for (Map<Long, Shard> chunks : worlds.values()) {
+            for (Shard shard : chunks.values()) {
+                for (Object value : shard.entries.values) {
+                    consumer.accept((V) value);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+
+    private Shard shard(World world, long chunkKey) {
+        Map<Long, Shard> chunks = worlds.get(world.getUID());
+        return chunks != null ? chunks.get(chunkKey) : null;
+    }
+
+    private static int indexOf(long[] positions, long pos) {
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] == pos) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,237 @@
+package com.itemremapper;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Debug trace: records diagnostics into a fixed-size lock-free ring buffer instead
+ * of the console. Messages are suppliers, built only when the category is enabled
+ * and the entry survives sampling. A background task appends new entries to
+ * {@code trace.log}; {@code /itemremapper trace dump} writes the whole buffer.
+ */
+public class DebugTrace {
+
+    /**
+     * Trace categories, each with its own sampling rate
+     */
+    public enum Category {
+        ITEM,
+        TRANSFER,
+        PACKET,
+        SOUND,
+        CHAT,
+        JUKEBOX;
+
+        final String configKey = name().toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(long sequence, long timeMillis, Category category, String thread, String message) {
+    }
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final DateTimeFormatter FILE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ItemRemapperPlugin plugin;
+    private final AtomicReferenceArray<Entry> ring;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    // Replaced as a whole on reload
+    private volatile boolean enabled;
+    private volatile boolean console;
+    private volatile double[] sampleRates = new double[Category.values().length];
+
+    // Only touched by the writer task
+    private long writtenUpTo;
+    private ScheduledTask writerTask;
+
+    public DebugTrace(ItemRemapperPlugin plugin, int bufferSize) {
+        this.plugin = plugin;
+        // Round up to a power of two so a slot is a mask instead of a modulo
+        int capacity = Integer.highestOneBit(Math.max(64, bufferSize) - 1) << 1;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Applies the debug and trace settings, called on every config load
+     *
+     * @param config The parsed config.yml
+     */
+    public void configure(FileConfiguration config) {
+        double[] rates = new double[Category.values().length];
+        ConfigurationSection sampling = config.getConfigurationSection("trace.sample-rates");
+        for (Category category : Category.values()) {
+            double rate = sampling != null ? sampling.getDouble(category.configKey, 1.0) : 1.0;
+            rates[category.ordinal()] = Math.max(0.0, Math.min(1.0, rate));
+        }
+        this.sampleRates = rates;
+        this.console = config.getBoolean("trace.console", false);
+        this.enabled = config.getBoolean("debug", false);
+    }
+
+    /**
+     * Checks if a category is recorded at all. Only needed when preparing a message
+     * costs more than building the supplier.
+     *
+     * @param category The category
+     * @return true if tracing is on and the category is not sampled away completely
+     */
+    public boolean isEnabled(Category category) {
+        return enabled && sampleRates[category.ordinal()] > 0.0;
+    }
+
+    /**
+     * Records a message. Does nothing beyond two reads if tracing is off.
+     *
+     * @param category The category, used for sampling
+     * @param message Builds the message, only called if the entry is recorded
+     */
+    public void trace(Category category, Supplier<String> message) {
+        if (!enabled) {
+            return;
+        }
+        double rate = sampleRates[category.ordinal()];
+        if (rate < 1.0 && (rate <= 0.0 || ThreadLocalRandom.current().nextDouble() >= rate)) {
+            return;
+        }
+
+        String text = message.get();
+        long sequence = nextSequence.getAndIncrement();
+        ring.set((int) (sequence & mask), new Entry(sequence, System.currentTimeMillis(), category,
+                Thread.currentThread().getName(), text));
+
+        if (console) {
+            plugin.getLogger().info("[" + category + "] " + text);
+        }
+    }
+
+    /**
+     * Starts the background writer that appends new entries to trace.log
+     *
+     * @param intervalSeconds Seconds between writes, 0 or less disables the writer
+     */
+    public void startWriter(long intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        writerTask = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, (task) -> writeNewEntries(),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the background writer and writes the remaining entries
+     */
+    public void stopWriter() {
+        if (writerTask != null) {
+            writerTask.cancel();
+            writerTask = null;
+            writeNewEntries();
+        }
+    }
+
+    private synchronized void writeNewEntries() {
+        long end = nextSequence.get();
+        if (end == writtenUpTo) {
+            return;
+        }
+        Path file = new File(plugin.getDataFolder(), "trace.log").toPath();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            long start = Math.max(writtenUpTo, end - ring.length());
+            if (start > writtenUpTo) {
+                writer.write("... " + (start - writtenUpTo) + " entries overwritten before they were written");
+                writer.newLine();
+            }
+            // Resume at the first slot still being published, so its entry is not lost
+            writtenUpTo = writeRange(writer, start, end, true);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to write trace.log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the complete buffer into a new file under traces/
+     *
+     * @return The written file
+     * @throws IOException If the file cannot be written
+     */
+    public Path dump() throws IOException {
+        long end = nextSequence.get();
+        long start = Math.max(0, end - ring.length());
+
+        Path directory = new File(plugin.getDataFolder(), "traces").toPath();
+        Files.createDirectories(directory);
+        Path file = directory.resolve("trace-" + LocalDateTime.now().format(FILE_FORMAT) + ".log");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeRange(writer, start, end, false);
+        }
+        return file;
+    }
+
+    /**
+     * Writes the entries of a sequence range. Slots already reused are skipped;
+     * slots claimed but not yet published by their writer are skipped too, or end
+     * the range if {@code stopAtUnpublished} is set.
+     *
+     * @return The sequence after the last entry written or skipped
+     */
+    private long writeRange(BufferedWriter writer, long start, long end, boolean stopAtUnpublished) throws IOException {
+        ZoneId zone = ZoneId.systemDefault();
+        for (long sequence = start; sequence < end; sequence++) {
+            Entry entry = ring.get((int) (sequence & mask));
+            if (entry == null || entry.sequence() < sequence) {
+                if (stopAtUnpublished) {
+                    return sequence;
+                }
+                continue;
+            }
+            if (entry.sequence() != sequence) {
+                continue;
+            }
+            writer.write(TIME_FORMAT.format(Instant.ofEpochMilli(entry.timeMillis()).atZone(zone)));
+            writer.write(" [" + entry.category() + "] [" + entry.thread() + "] ");
+            writer.write(entry.message());
+            writer.newLine();
+        }
+        return end;
+    }
+
+    /**
+     * Gets the number of entries recorded since startup
+     *
+     * @return The total entry count, including overwritten ones
+     */
+    public long getRecordedCount() {
+        return nextSequence.get();
+    }
+
+    /**
+     * Gets the ring buffer capacity
+     *
+     * @return The number of entries kept
+     */
+    public int getCapacity() {
+        return ring.length();
+    }
+}
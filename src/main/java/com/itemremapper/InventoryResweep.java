@@ -0,0 +1,215 @@
+package com.itemremapper;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayDeque;
+import java.util.EnumSet;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Restamps online player inventories and ender chests after a config reload.
+ * Players are handed out in batches limited by a per-tick stack budget, and
+ * each player's inventories are processed on that player's entity scheduler.
+ * Only stacks of materials whose remap changed are touched, and only those are
+ * charged to the budget: a player is dispatched against an estimate, and the
+ * difference to the stacks actually processed is settled on a later tick.
+ */
+public class InventoryResweep {
+
+    // Main inventory (36) + armor (4) + offhand (1) + ender chest (27), the estimate before any player finished
+    private static final int STACKS_PER_PLAYER = 68;
+    private static final long PROGRESS_INTERVAL_TICKS = 100L;
+
+    private final ItemRemapperPlugin plugin;
+    private final StackRemapper stackRemapper;
+    private volatile Sweep currentSweep;
+
+    /**
+     * State of one running sweep
+     */
+    private static class Sweep {
+        final EnumSet<Material> changedMaterials;
+        final CommandSender requester;
+        final Queue<Player> pendingPlayers;
+        final int totalPlayers;
+        final int stacksPerTick;
+        final long startNanos = System.nanoTime();
+        final AtomicInteger finishedPlayers = new AtomicInteger();
+        final AtomicInteger scannedStacks = new AtomicInteger();
+        final AtomicInteger remappedStacks = new AtomicInteger();
+        final AtomicInteger sweptPlayers = new AtomicInteger();
+        final AtomicInteger unsettledStacks = new AtomicInteger(); // Actual minus estimated, not yet charged
+        ScheduledTask dispatchTask;
+        long ticks;
+        long budget; // Global region thread only; negative while over budget
+        boolean reported;
+
+        Sweep(EnumSet<Material> changedMaterials, CommandSender requester, Queue<Player> players, int stacksPerTick) {
+            this.changedMaterials = changedMaterials;
+            this.requester = requester;
+            this.pendingPlayers = players;
+            this.totalPlayers = players.size();
+            this.stacksPerTick = stacksPerTick;
+        }
+
+        /**
+         * Estimates a player's stacks from the players swept so far, at least one each
+         */
+        int estimate() {
+            int swept = sweptPlayers.get();
+            if (swept == 0) {
+                return STACKS_PER_PLAYER;
+            }
+            return Math.max(1, (scannedStacks.get() + swept - 1) / swept);
+        }
+    }
+
+    public InventoryResweep(ItemRemapperPlugin plugin, StackRemapper stackRemapper) {
+        this.plugin = plugin;
+        this.stackRemapper = stackRemapper;
+    }
+
+    /**
+     * Starts a sweep over all online players, replacing any sweep still running
+     *
+     * @param changedMaterials Materials whose remap changed in the reload
+     * @param requester Receives progress and the final report, may be null
+     * @param stacksPerTick Stack budget per tick, from the reloaded config
+     */
+    public void start(EnumSet<Material> changedMaterials, CommandSender requester, int stacksPerTick) {
+        cancel();
+
+        Queue<Player> players = new ArrayDeque<>(Bukkit.getOnlinePlayers());
+        if (changedMaterials.isEmpty() || players.isEmpty()) {
+            return;
+        }
+
+        Sweep sweep = new Sweep(changedMaterials, requester, players, Math.max(1, stacksPerTick));
+        currentSweep = sweep;
+        report(sweep, "Restamping " + sweep.totalPlayers + " online inventories for "
+                + changedMaterials.size() + " changed remap(s)...");
+
+        sweep.dispatchTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, (task) -> dispatch(sweep), 1L, 1L);
+    }
+
+    /**
+     * Cancels the running sweep, if any
+     */
+    public void cancel() {
+        Sweep sweep = currentSweep;
+        if (sweep != null && sweep.dispatchTask != null) {
+            sweep.dispatchTask.cancel();
+        }
+        currentSweep = null;
+    }
+
+    /**
+     * Runs once per tick on the global region: hands out players within the stack budget
+     */
+    private void dispatch(Sweep sweep) {
+        sweep.ticks++;
+
+        // Unused budget does not carry over, debt from underestimated players does
+        sweep.budget = Math.min(sweep.budget, 0) + sweep.stacksPerTick - sweep.unsettledStacks.getAndSet(0);
+        while (sweep.budget > 0 && !sweep.pendingPlayers.isEmpty()) {
+            Player player = sweep.pendingPlayers.poll();
+            int estimate = sweep.estimate();
+            sweep.budget -= estimate;
+
+            // Runs on the player's owning region; retired if the player logged out meanwhile
+            ScheduledTask scheduled = player.getScheduler().run(plugin,
+                    (task) -> sweepPlayer(sweep, player, estimate),
+                    () -> retire(sweep, estimate));
+            if (scheduled == null) {
+                retire(sweep, estimate);
+            }
+        }
+
+        int finished = sweep.finishedPlayers.get();
+        if (finished >= sweep.totalPlayers) {
+            finish(sweep);
+        } else if (sweep.ticks % PROGRESS_INTERVAL_TICKS == 0) {
+            report(sweep, "Restamp progress: " + finished + "/" + sweep.totalPlayers + " players, "
+                    + sweep.remappedStacks.get() + " stacks updated");
+        }
+    }
+
+    /**
+     * Restamps one player's inventory and ender chest, on the player's thread
+     */
+    private void sweepPlayer(Sweep sweep, Player player, int estimate) {
+        int processed = 0;
+        try {
+            if (player.isOnline()) {
+                processed += sweepInventory(sweep, player.getInventory());
+                processed += sweepInventory(sweep, player.getEnderChest());
+            }
+        } finally {
+            sweep.unsettledStacks.addAndGet(Math.max(1, processed) - estimate);
+            sweep.sweptPlayers.incrementAndGet();
+            sweep.finishedPlayers.incrementAndGet();
+        }
+    }
+
+    /**
+     * Retires a player who logged out before being swept, refunding the estimate
+     */
+    private void retire(Sweep sweep, int estimate) {
+        sweep.unsettledStacks.addAndGet(-estimate);
+        sweep.finishedPlayers.incrementAndGet();
+    }
+
+    /**
+     * @return The number of stacks handed to the remapper
+     */
+    private int sweepInventory(Sweep sweep, Inventory inventory) {
+        int processed = 0;
+        ItemStack[] contents = inventory.getContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            if (item == null || !sweep.changedMaterials.contains(item.getType())) {
+                continue;
+            }
+            processed++;
+            sweep.scannedStacks.incrementAndGet();
+            if (stackRemapper.remap(item)) {
+                inventory.setItem(slot, item);
+                sweep.remappedStacks.incrementAndGet();
+            }
+        }
+        return processed;
+    }
+
+    private void finish(Sweep sweep) {
+        if (sweep.dispatchTask != null) {
+            sweep.dispatchTask.cancel();
+        }
+        if (currentSweep == sweep) {
+            currentSweep = null;
+        }
+        if (sweep.reported) {
+            return;
+        }
+        sweep.reported = true;
+
+        long millis = (System.nanoTime() - sweep.startNanos) / 1_000_000L;
+        report(sweep, "Restamp finished: " + sweep.remappedStacks.get() + " of " + sweep.scannedStacks.get()
+                + " matching stacks updated across " + sweep.totalPlayers + " players in " + millis + " ms ("
+                + sweep.ticks + " ticks)");
+    }
+
+    private void report(Sweep sweep, String message) {
+        plugin.getLogger().info(message);
+        if (sweep.requester != null && !(sweep.requester instanceof ConsoleCommandSender)) {
+            sweep.requester.sendMessage("§7" + message);
+        }
+    }
+}
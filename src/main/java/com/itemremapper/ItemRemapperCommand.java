@@ -1,10 +1,13 @@
 package com.itemremapper;
 
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,6 +27,8 @@ public class ItemRemapperCommand implements CommandExecutor, TabCompleter {
         if (args.length == 0) {
             sender.sendMessage("§6ItemRemapper v" + plugin.getDescription().getVersion());
             sender.sendMessage("§7Use /itemremapper reload to reload the configuration");
+            sender.sendMessage("§7Use /itemremapper stats to show handler metrics");
+            sender.sendMessage("§7Use /itemremapper trace dump to write the debug trace to disk");
             return true;
         }
 
@@ -33,18 +38,58 @@ public class ItemRemapperCommand implements CommandExecutor, TabCompleter {
                 return true;
             }
 
-            try {
-                plugin.reloadPluginConfig();
+            sender.sendMessage("§7Reloading configuration...");
+            plugin.reloadPluginConfig(sender).whenComplete((remapCount, error) -> {
+                if (error != null) {
+                    sender.sendMessage("§cError reloading configuration: " + error.getMessage());
+                    plugin.getLogger().severe("Error reloading config: " + error.getMessage());
+                    return;
+                }
                 sender.sendMessage("§aItemRemapper configuration reloaded successfully!");
-                sender.sendMessage("§7Loaded " + plugin.getRemapCount() + " item remappings.");
-            } catch (Exception e) {
-                sender.sendMessage("§cError reloading configuration: " + e.getMessage());
-                plugin.getLogger().severe("Error reloading config: " + e.getMessage());
+                sender.sendMessage("§7Loaded " + remapCount + " item remappings.");
+            });
+            return true;
+        }
+
+        if (args[0].equalsIgnoreCase("stats")) {
+            if (!sender.hasPermission("itemremapper.admin")) {
+                sender.sendMessage("§cYou don't have permission to use this command.");
+                return true;
+            }
+
+            for (String line : plugin.getMetrics().formatSummary()) {
+                sender.sendMessage(line);
             }
             return true;
         }
 
-        sender.sendMessage("§cUnknown subcommand. Use /itemremapper reload");
+        if (args[0].equalsIgnoreCase("trace")) {
+            if (!sender.hasPermission("itemremapper.admin")) {
+                sender.sendMessage("§cYou don't have permission to use this command.");
+                return true;
+            }
+
+            DebugTrace trace = plugin.getTrace();
+            if (args.length < 2 || !args[1].equalsIgnoreCase("dump")) {
+                sender.sendMessage("§7Trace: " + trace.getRecordedCount() + " entries recorded, last "
+                        + trace.getCapacity() + " kept. Use /itemremapper trace dump");
+                return true;
+            }
+
+            // File I/O stays off the region threads
+            Bukkit.getAsyncScheduler().runNow(plugin, (task) -> {
+                try {
+                    Path file = trace.dump();
+                    sender.sendMessage("§aTrace written to " + plugin.getDataFolder().toPath().relativize(file));
+                } catch (IOException e) {
+                    sender.sendMessage("§cError writing trace: " + e.getMessage());
+                    plugin.getLogger().severe("Error writing trace: " + e.getMessage());
+                }
+            });
+            return true;
+        }
+
+        sender.sendMessage("§cUnknown subcommand. Use /itemremapper <reload|stats|trace dump>");
         return true;
     }
 
@@ -55,6 +100,12 @@ public class ItemRemapperCommand implements CommandExecutor, TabCompleter {
         if (args.length == 1) {
             if (sender.hasPermission("itemremapper.admin")) {
                 completions.add("reload");
+                completions.add("stats");
+                completions.add("trace");
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("trace")) {
+            if (sender.hasPermission("itemremapper.admin")) {
+                completions.add("dump");
             }
         }
 
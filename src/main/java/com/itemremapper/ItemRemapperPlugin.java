@@ -1,20 +1,46 @@
 package com.itemremapper;
 
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.logging.Level;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public class ItemRemapperPlugin extends JavaPlugin {
 
-    private final Map<String, ItemRemap> itemRemaps = new HashMap<>();
-    private boolean debugMode = false;
+    // Immutable snapshot, replaced as a whole on reload so region and netty threads never see a partial table
+    private volatile RemapTable remapTable = RemapTable.EMPTY;
+    private final Object reloadLock = new Object();
+    private NamespacedKey remappedKey;
     private JukeboxListener jukeboxListener;
+    private PacketItemRemapper packetItemRemapper;
+    private InventoryResweep inventoryResweep;
+    private DebugTrace trace;
+    private final PluginMetrics metrics = new PluginMetrics(this);
     
     @Override
     public void onLoad() {
+        // Persistent key marking items as remapped by this plugin
+        remappedKey = new NamespacedKey(this, "remapped");
+        
         // Initialize jukebox listener early (ProtocolLib should be initialized in onLoad)
         jukeboxListener = new JukeboxListener(this);
     }
@@ -27,12 +53,50 @@ public class ItemRemapperPlugin extends JavaPlugin {
         private final List<String> lore;
         private final String customSound;
         private final int duration; // Duration in seconds
+        private final int stamp; // Fingerprint of name and lore, stored in the item marker
+        
+        // Parsed once at config load, applying a remap never parses legacy text
+        private final Component displayNameComponent;
+        private final List<Component> loreComponents;
+        private final Component nowPlayingComponent; // Jukebox action bar message
+        private ItemMeta prototypeMeta;
+        
+        // Per-locale renderings keyed by lowercase locale ("de_de") or language ("de"), virtual mode only
+        private Map<String, ItemRemap> localized = Map.of();
         
         public ItemRemap(String displayName, List<String> lore, String customSound, int duration) {
             this.displayName = displayName;
             this.lore = lore;
             this.customSound = customSound;
             this.duration = duration;
+            
+            // Never 0, so a missing marker can't match
+            int hash = Objects.hash(displayName, hasLore() ? lore : null);
+            this.stamp = hash != 0 ? hash : 1;
+            
+            LegacyComponentSerializer legacy = LegacyComponentSerializer.legacySection();
+            this.displayNameComponent = displayName != null ? legacy.deserialize(displayName) : null;
+            this.loreComponents = hasLore() ? lore.stream().map(line -> (Component) legacy.deserialize(line)).toList() : null;
+            this.nowPlayingComponent = displayName != null ? legacy.deserialize("§7Now playing: " + displayName) : null;
+        }
+        
+        /**
+         * Copies a remap without its prototype, sharing the parsed components.
+         * Used when one rule applies to several materials.
+         */
+        ItemRemap(ItemRemap other) {
+            this.displayName = other.displayName;
+            this.lore = other.lore;
+            this.customSound = other.customSound;
+            this.duration = other.duration;
+            this.stamp = other.stamp;
+            this.displayNameComponent = other.displayNameComponent;
+            this.loreComponents = other.loreComponents;
+            this.nowPlayingComponent = other.nowPlayingComponent;
+            
+            Map<String, ItemRemap> localizedCopies = new HashMap<>();
+            other.localized.forEach((locale, remap) -> localizedCopies.put(locale, new ItemRemap(remap)));
+            this.localized = Map.copyOf(localizedCopies);
         }
         
         public String getDisplayName() {
@@ -62,6 +126,88 @@ public class ItemRemapperPlugin extends JavaPlugin {
         public boolean hasCustomSound() {
             return customSound != null && !customSound.isEmpty();
         }
+        
+        /**
+         * Gets the stamp written into the remapped marker of items carrying this remap.
+         * Items whose stamp matches are up-to-date with the current config.
+         * 
+         * @return The non-zero stamp
+         */
+        public int getStamp() {
+            return stamp;
+        }
+        
+        public Component getDisplayNameComponent() {
+            return displayNameComponent;
+        }
+        
+        public List<Component> getLoreComponents() {
+            return loreComponents;
+        }
+        
+        /**
+         * Gets the "Now playing" action bar message of a disc
+         * 
+         * @return The message, or null without a display name
+         */
+        public Component getNowPlayingComponent() {
+            return nowPlayingComponent;
+        }
+        
+        /**
+         * Gets the rendering of this remap for a client locale.
+         * Falls back from the full locale ("de_at") to its language ("de") and then to this remap.
+         * 
+         * @param locale The lowercase client locale, may be null
+         * @return The localized remap, or this remap if none is configured
+         */
+        public ItemRemap forLocale(String locale) {
+            if (localized.isEmpty() || locale == null) {
+                return this;
+            }
+            ItemRemap remap = localized.get(locale);
+            if (remap == null) {
+                int separator = locale.indexOf('_');
+                remap = separator > 0 ? localized.get(locale.substring(0, separator)) : null;
+            }
+            return remap != null ? remap : this;
+        }
+        
+        public boolean hasLocales() {
+            return !localized.isEmpty();
+        }
+        
+        /**
+         * Sets the per-locale renderings. Called once while compiling the remap table.
+         */
+        void setLocalized(Map<String, ItemRemap> localized) {
+            this.localized = Map.copyOf(localized);
+        }
+        
+        /**
+         * Gets the complete meta a plain item of this remap's material ends up with:
+         * name, lore and the current stamp. Applied with setItemMeta, which copies it.
+         * 
+         * @return The prototype meta, or null if it was not built (no server available)
+         */
+        public ItemMeta getPrototypeMeta() {
+            return prototypeMeta;
+        }
+        
+        /**
+         * Builds the prototype meta. Called once while compiling the remap table,
+         * before the table is published.
+         */
+        void buildPrototype(Material material, NamespacedKey markerKey) {
+            ItemMeta meta = Bukkit.getItemFactory().getItemMeta(material);
+            if (meta == null) {
+                return;
+            }
+            meta.displayName(displayNameComponent);
+            meta.lore(loreComponents);
+            meta.getPersistentDataContainer().set(markerKey, PersistentDataType.INTEGER, stamp);
+            this.prototypeMeta = meta;
+        }
     }
 
     @Override
@@ -69,25 +215,50 @@ public class ItemRemapperPlugin extends JavaPlugin {
         // Save default config if it doesn't exist
         saveDefaultConfig();
         
+        // The trace buffer is sized once; sampling and the debug switch follow reloads
+        trace = new DebugTrace(this, getConfig().getInt("trace.buffer-size", 4096));
+        
         // Load configuration
-        loadConfiguration();
+        applyConfiguration(getConfig(), compileConfiguration(getConfig()));
         
-        // Register event listener
-        getServer().getPluginManager().registerEvents(new ItemRemapListener(this), this);
+        // Register item remapping - either in packets only (virtual) or on the stored items
+        if ("virtual".equalsIgnoreCase(getConfig().getString("remap-mode", "stored"))) {
+            packetItemRemapper = new PacketItemRemapper(this);
+            if (packetItemRemapper.register()) {
+                getServer().getPluginManager().registerEvents(packetItemRemapper, this);
+            } else {
+                getLogger().warning("Virtual remap mode needs ProtocolLib - falling back to stored mode");
+                packetItemRemapper = null;
+            }
+        }
+        if (packetItemRemapper == null) {
+            StackRemapper stackRemapper = new StackRemapper(this);
+            inventoryResweep = new InventoryResweep(this, stackRemapper);
+            getServer().getPluginManager().registerEvents(new ItemRemapListener(stackRemapper, metrics), this);
+            getServer().getPluginManager().registerEvents(new TransferRemapper(this, stackRemapper), this);
+        }
         
         // Register jukebox listener and setup ProtocolLib
         if (jukeboxListener == null) {
             jukeboxListener = new JukeboxListener(this);
         }
         jukeboxListener.setupProtocolLib();
-        jukeboxListener.startCacheCleanupTask();
+        jukeboxListener.startExpiryTimer();
+        jukeboxListener.restoreJukeboxes();
         jukeboxListener.startJukeboxScanner();
         getServer().getPluginManager().registerEvents(jukeboxListener, this);
         
-        // Register command
-        ItemRemapperCommand commandHandler = new ItemRemapperCommand(this);
-        getCommand("itemremapper").setExecutor(commandHandler);
-        getCommand("itemremapper").setTabCompleter(commandHandler);
+        trace.startWriter(getConfig().getLong("trace.write-interval-seconds", 0L));
+        metrics.startExport(metrics.resolveExportFile(getConfig().getString("metrics.prometheus-file", "metrics.prom")),
+                getConfig().getLong("metrics.export-interval-seconds", 15L));
+        
+        // Register command (absent when running headless, e.g. in benchmarks)
+        PluginCommand command = getCommand("itemremapper");
+        if (command != null) {
+            ItemRemapperCommand commandHandler = new ItemRemapperCommand(this);
+            command.setExecutor(commandHandler);
+            command.setTabCompleter(commandHandler);
+        }
         
         // Log server type
         if (isFolia()) {
@@ -95,77 +266,159 @@ public class ItemRemapperPlugin extends JavaPlugin {
         } else {
             getLogger().info("ItemRemapper has been enabled on Paper/Spigot!");
         }
-        getLogger().info("Loaded " + itemRemaps.size() + " item remappings.");
+        getLogger().info("Loaded " + remapTable.size() + " item remappings.");
     }
 
     @Override
     public void onDisable() {
         // Clean up jukebox listener
         if (jukeboxListener != null) {
+            jukeboxListener.saveJukeboxes();
             jukeboxListener.cleanup();
         }
+        if (packetItemRemapper != null) {
+            packetItemRemapper.cleanup();
+        }
+        if (inventoryResweep != null) {
+            inventoryResweep.cancel();
+        }
+        if (trace != null) {
+            trace.stopWriter();
+        }
+        metrics.stopExport();
         
         getLogger().info("ItemRemapper has been disabled!");
     }
 
     /**
-     * Loads the item remapping configuration from config.yml
+     * Compiles the item remapping configuration into a material-indexed table
+     * without publishing anything, so an invalid config leaves the running one untouched
+     * 
+     * @param config The parsed config.yml
+     * @return The compiled table
      */
-    private void loadConfiguration() {
-        itemRemaps.clear();
-        
-        // Load debug mode
-        debugMode = getConfig().getBoolean("debug", false);
-        
-        // Load item remaps from config
-        if (getConfig().isConfigurationSection("item-remaps")) {
-            var remapsSection = getConfig().getConfigurationSection("item-remaps");
-            if (remapsSection != null) {
-                for (String key : remapsSection.getKeys(false)) {
-                    String materialKey = key.toUpperCase();
-                    
-                    // Check if it's a simple string format or complex format
-                    if (remapsSection.isString(key)) {
-                        // Simple format: MATERIAL: "Display Name"
-                        String displayName = remapsSection.getString(key);
-                        itemRemaps.put(materialKey, new ItemRemap(displayName, null, null, 0));
-                    } else if (remapsSection.isConfigurationSection(key)) {
-                        // Complex format with name and/or lore
-                        var itemSection = remapsSection.getConfigurationSection(key);
-                        if (itemSection != null) {
-                            String displayName = itemSection.getString("name");
-                            List<String> lore = itemSection.getStringList("lore");
-                            String customSound = itemSection.getString("sound");
-                            int duration = itemSection.getInt("duration", 0);
-                            
-                            // Only add if at least name or lore is present
-                            if (displayName != null || (lore != null && !lore.isEmpty())) {
-                                itemRemaps.put(materialKey, new ItemRemap(displayName, lore, customSound, duration));
-                            }
-                        }
+    private RemapTable compileConfiguration(FileConfiguration config) {
+        RemapTable table = RemapTable.compile(config.getConfigurationSection("item-remaps"), getLogger(), remappedKey);
+        
+        if (table.hasLocales() && !"virtual".equalsIgnoreCase(config.getString("remap-mode", "stored"))) {
+            getLogger().warning("Per-locale remaps are only applied in virtual remap mode - stored items use the default name");
+        }
+        return table;
+    }
+    
+    /**
+     * Applies the reloadable settings and publishes the compiled table in one write.
+     * Other settings are read once on enable and need a restart (see config.yml).
+     * 
+     * @param config The parsed config.yml
+     * @param table The table compiled from it
+     */
+    private void applyConfiguration(FileConfiguration config, RemapTable table) {
+        // Debug switch and trace sampling
+        trace.configure(config);
+        metrics.setEnabled(config.getBoolean("metrics.enabled", true));
+        remapTable = table;
+    }
+
+    /**
+     * Reloads the plugin configuration and restamps online inventories
+     * for remaps that changed.
+     * The file is parsed and compiled on an async thread; readers keep using the
+     * previous table until the new one is published. Overlapping reloads are
+     * serialized, so they publish in the order they read the file.
+     * 
+     * @param sender Receives the restamp progress, may be null
+     * @return Completes with the number of loaded remaps, or exceptionally if the config is invalid
+     */
+    public CompletableFuture<Integer> reloadPluginConfig(CommandSender sender) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        
+        getServer().getAsyncScheduler().runNow(this, (task) -> {
+            // Overlapping reloads run one after another, so the last file read is the one published
+            synchronized (reloadLock) {
+                try {
+                    YamlConfiguration config = new YamlConfiguration();
+                    config.load(new File(getDataFolder(), "config.yml"));
+
+                    RemapTable compiled = compileConfiguration(config);
+
+                    RemapTable previous = remapTable;
+                    applyConfiguration(config, compiled);
+                    RemapTable current = remapTable;
+                    getLogger().info("Configuration reloaded! Loaded " + current.size() + " item remappings.");
+
+                    // Virtual mode rewrites packets from the live table, stored items need a sweep
+                    if (inventoryResweep != null && config.getBoolean("resweep.enabled", true)) {
+                        int stacksPerTick = config.getInt("resweep.stacks-per-tick", 256);
+                        getServer().getGlobalRegionScheduler().execute(this,
+                                () -> inventoryResweep.start(current.changedSince(previous), sender, stacksPerTick));
                     }
+                    result.complete(current.size());
+                } catch (IOException | InvalidConfigurationException | RuntimeException e) {
+                    // Keep serving the previous table
+                    result.completeExceptionally(e);
                 }
             }
-        }
+        });
+        
+        return result;
     }
 
     /**
-     * Reloads the plugin configuration
+     * Gets the item remap configuration for an item, including variant rules
+     * 
+     * @param item The item
+     * @return The ItemRemap object, or null if no remap applies
      */
-    public void reloadPluginConfig() {
-        reloadConfig();
-        loadConfiguration();
-        getLogger().info("Configuration reloaded! Loaded " + itemRemaps.size() + " item remappings.");
+    public ItemRemap getItemRemap(ItemStack item) {
+        return remapTable.match(item);
     }
 
     /**
-     * Gets the item remap configuration for a material type
+     * Gets the item remap configuration for a material type, ignoring variants
      * 
-     * @param materialName The material name (e.g., "DIAMOND")
+     * @param material The material (e.g., Material.DIAMOND)
      * @return The ItemRemap object, or null if no remap exists
      */
-    public ItemRemap getItemRemap(String materialName) {
-        return itemRemaps.get(materialName.toUpperCase());
+    public ItemRemap getItemRemap(Material material) {
+        return remapTable.get(material);
+    }
+
+    /**
+     * Checks if any remap rule covers a material
+     * 
+     * @param material The material
+     * @return true if items of this material may be remapped
+     */
+    public boolean hasRemapRule(Material material) {
+        return remapTable.hasRule(material);
+    }
+
+    /**
+     * Gets the key of the PDC marker that stores the remap stamp
+     * 
+     * @return The marker key
+     */
+    public NamespacedKey getRemappedKey() {
+        return remappedKey;
+    }
+
+    /**
+     * Gets the currently loaded remap table
+     * 
+     * @return The remap table
+     */
+    public RemapTable getRemapTable() {
+        return remapTable;
+    }
+
+    /**
+     * Checks if items are remapped in packets only (virtual remap mode)
+     * 
+     * @return true if virtual remap mode is active
+     */
+    public boolean isVirtualRemap() {
+        return packetItemRemapper != null;
     }
 
     /**
@@ -174,27 +427,35 @@ public class ItemRemapperPlugin extends JavaPlugin {
      * @return The count of item remappings
      */
     public int getRemapCount() {
-        return itemRemaps.size();
+        return remapTable.size();
     }
 
     /**
-     * Checks if debug mode is enabled
+     * Gets the debug trace
      * 
-     * @return true if debug mode is enabled
+     * @return The debug trace
      */
-    public boolean isDebugMode() {
-        return debugMode;
+    public DebugTrace getTrace() {
+        return trace;
     }
 
     /**
-     * Logs a debug message if debug mode is enabled
+     * Gets the handler metrics
      * 
-     * @param message The message to log
+     * @return The metrics
      */
-    public void debug(String message) {
-        if (debugMode) {
-            getLogger().log(Level.INFO, "[DEBUG] " + message);
-        }
+    public PluginMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Records a debug trace entry. The message is only built if the entry is recorded.
+     * 
+     * @param category The trace category
+     * @param message Builds the message
+     */
+    public void trace(DebugTrace.Category category, Supplier<String> message) {
+        trace.trace(category, message);
     }
 
     /**
@@ -0,0 +1,273 @@
+package com.itemremapper;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Known jukebox positions per world, bucketed by chunk. Positions are packed into
+ * longs the way block positions are on the wire, so the index holds no Location objects.
+ * Nearest queries only visit the chunks the range overlaps.
+ * Chunk buckets are small copy-on-write arrays: readers never lock, writers replace
+ * the bucket of one chunk.
+ */
+public class JukeboxIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    // World UID -> packed chunk key -> packed block positions
+    private final Map<UUID, Map<Long, long[]>> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Visits indexed positions
+     */
+    @FunctionalInterface
+    public interface PositionConsumer {
+        void accept(World world, long pos);
+    }
+
+    /**
+     * Packs a block position: 26 bits x, 26 bits z, 12 bits y
+     */
+    public static long pack(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | (y & 0xFFFL);
+    }
+
+    /**
+     * Packs the block position of a location
+     */
+    public static long pack(Location location) {
+        return pack(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    public static int unpackX(long pos) {
+        return (int) (pos >> 38);
+    }
+
+    public static int unpackY(long pos) {
+        return (int) (pos << 52 >> 52);
+    }
+
+    public static int unpackZ(long pos) {
+        return (int) (pos << 26 >> 38);
+    }
+
+    /**
+     * Packs chunk coordinates into a map key
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return (long) chunkX << 32 | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the key of the chunk containing a packed block position
+     */
+    public static long chunkKeyOf(long pos) {
+        return chunkKey(unpackX(pos) >> 4, unpackZ(pos) >> 4);
+    }
+
+    /**
+     * Creates the block location of a packed position
+     */
+    public static Location toLocation(World world, long pos) {
+        return new Location(world, unpackX(pos), unpackY(pos), unpackZ(pos));
+    }
+
+    /**
+     * Adds a jukebox position
+     *
+     * @return true if it was not known yet
+     */
+    public boolean add(World world, long pos) {
+        boolean[] added = {false};
+        worlds.computeIfAbsent(world.getUID(), uid -> new ConcurrentHashMap<>())
+                .compute(chunkKeyOf(pos), (key, bucket) -> {
+                    if (bucket == null) {
+                        added[0] = true;
+                        return new long[] {pos};
+                    }
+                    if (indexOf(bucket, pos) >= 0) {
+                        return bucket;
+                    }
+                    long[] grown = Arrays.copyOf(bucket, bucket.length + 1);
+                    grown[bucket.length] = pos;
+                    added[0] = true;
+                    return grown;
+                });
+        return added[0];
+    }
+
+    public boolean add(Location location) {
+        return add(location.getWorld(), pack(location));
+    }
+
+    /**
+     * Removes a jukebox position
+     *
+     * @return true if it was known
+     */
+    public boolean remove(World world, long pos) {
+        Map<Long, long[]> chunks = worlds.get(world.getUID());
+        if (chunks == null) {
+            return false;
+        }
+        boolean[] removed = {false};
+        chunks.computeIfPresent(chunkKeyOf(pos), (key, bucket) -> {
+            int index = indexOf(bucket, pos);
+            if (index < 0) {
+                return bucket;
+            }
+            removed[0] = true;
+            if (bucket.length == 1) {
+                return null;
+            }
+            long[] shrunk = new long[bucket.length - 1];
+            System.arraycopy(bucket, 0, shrunk, 0, index);
+            System.arraycopy(bucket, index + 1, shrunk, index, shrunk.length - index);
+            return shrunk;
+        });
+        return removed[0];
+    }
+
+    public boolean remove(Location location) {
+        return remove(location.getWorld(), pack(location));
+    }
+
+    /**
+     * Checks if a chunk holds any known jukebox
+     */
+    public boolean containsChunk(World world, int chunkX, int chunkZ) {
+        return bucket(world, chunkKey(chunkX, chunkZ)).length > 0;
+    }
+
+    /**
+     * Visits the known jukeboxes of a chunk
+     */
+    public void forEachInChunk(World world, int chunkX, int chunkZ, LongConsumer consumer) {
+        for (long pos : bucket(world, chunkKey(chunkX, chunkZ))) {
+            consumer.accept(pos);
+        }
+    }
+
+    /**
+     * Finds the known jukebox nearest to a point within a range
+     *
+     * @return The jukebox's block location, or null if none is in range
+     */
+    public Location nearest(World world, double x, double y, double z, double range) {
+        Map<Long, long[]> chunks = worlds.get(world.getUID());
+        if (chunks == null) {
+            return null;
+        }
+        boolean found = false;
+        long nearest = 0L;
+        double nearestDistance = range * range;
+        int minChunkX = (int) Math.floor(x - range) >> 4;
+        int maxChunkX = (int) Math.floor(x + range) >> 4;
+        int minChunkZ = (int) Math.floor(z - range) >> 4;
+        int maxChunkZ = (int) Math.floor(z + range) >> 4;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                long[] bucket = chunks.get(chunkKey(chunkX, chunkZ));
+                if (bucket == null) {
+                    continue;
+                }
+                for (long pos : bucket) {
+                    double distance = distanceSquared(pos, x, y, z);
+                    if (distance <= nearestDistance) {
+                        found = true;
+                        nearest = pos;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+        }
+        return found ? toLocation(world, nearest) : null;
+    }
+
+    /**
+     * Visits every known jukebox. The positions of a chunk are a snapshot.
+     */
+    public void forEach(Iterable<World> loadedWorlds, PositionConsumer consumer) {
+        for (World world : loadedWorlds) {
+            Map<Long, long[]> chunks = worlds.get(world.getUID());
+            if (chunks == null) {
+                continue;
+            }
+            for (long[] bucket : chunks.values()) {
+                for (long pos : bucket) {
+                    consumer.accept(world, pos);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the known jukeboxes of a world
+     *
+     * @return A snapshot of the packed positions
+     */
+    public long[] positions(World world) {
+        Map<Long, long[]> chunks = worlds.get(world.getUID());
+        if (chunks == null) {
+            return EMPTY;
+        }
+        long[] positions = new long[16];
+        int size = 0;
+        for (long[] bucket : chunks.values()) {
+            if (size + bucket.length > positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(positions.length << 1, size + bucket.length));
+            }
+            System.arraycopy(bucket, 0, positions, size, bucket.length);
+            size += bucket.length;
+        }
+        return Arrays.copyOf(positions, size);
+    }
+
+    /**
+     * Gets the number of known jukeboxes
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Long, long[]> chunks : worlds.values()) {
+            for (long[] bucket : chunks.values()) {
+                size += bucket.length;
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+
+    private long[] bucket(World world, long chunkKey) {
+        Map<Long, long[]> chunks = worlds.get(world.getUID());
+        if (chunks == null) {
+            return EMPTY;
+        }
+        long[] bucket = chunks.get(chunkKey);
+        return bucket != null ? bucket : EMPTY;
+    }
+
+    private static int indexOf(long[] bucket, long pos) {
+        for (int i = 0; i < bucket.length; i++) {
+            if (bucket[i] == pos) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static double distanceSquared(long pos, double x, double y, double z) {
+        double dx = unpackX(pos) - x;
+        double dy = unpackY(pos) - y;
+        double dz = unpackZ(pos) - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
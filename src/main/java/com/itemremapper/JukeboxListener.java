@@ -6,24 +6,52 @@ import com.comphenix.protocol.ProtocolManager;
 import com.comphenix.protocol.events.PacketAdapter;
 import com.comphenix.protocol.events.PacketContainer;
 import com.comphenix.protocol.events.PacketEvent;
+import com.comphenix.protocol.utility.MinecraftReflection;
 import com.comphenix.protocol.wrappers.WrappedChatComponent;
 import com.comphenix.protocol.wrappers.BlockPosition;
-import net.md_5.bungee.api.ChatMessageType;
-import net.md_5.bungee.api.chat.TextComponent;
+import com.comphenix.protocol.wrappers.EnumWrappers;
+import com.comphenix.protocol.wrappers.MinecraftKey;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.key.InvalidKeyException;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.sound.Sound;
+import net.kyori.adventure.sound.SoundStop;
 import org.bukkit.*;
 import org.bukkit.block.Block;
 import org.bukkit.block.Jukebox;
+import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
-import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
 
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Listener that handles jukebox music disc sound replacement
@@ -35,19 +63,35 @@ public class JukeboxListener implements Listener {
     private boolean protocolLibAvailable = false;
     
     // Jukebox tracking
-    private final Map<Location, ActiveJukebox> activeJukeboxes = new ConcurrentHashMap<>();
-    private final Set<Location> knownJukeboxes = ConcurrentHashMap.newKeySet();
-    private long lastDiscoveryTime = 0;
-    private static final long DISCOVERY_INTERVAL = 5000; // 5 seconds between full discoveries
+    // Sharded by chunk: only the chunk's region writes, other threads read the published entries
+    private final ChunkShardedMap<ActiveJukebox> activeJukeboxes = new ChunkShardedMap<>();
+    private final JukeboxIndex knownJukeboxes = new JukeboxIndex();
+    // Active jukeboxes each player hears, checked when the player moves to another chunk
+    private final Map<UUID, Set<ActiveJukebox>> hearingByPlayer = new ConcurrentHashMap<>();
+    // World UID -> chunks whose jukeboxes were discovered, kept across unloads (value 1)
+    private final Map<UUID, LongLongMap> scannedChunks = new ConcurrentHashMap<>();
+    // The two jukebox block states, looked up in chunk palettes
+    private BlockData emptyJukebox;
+    private BlockData filledJukebox;
     
-    // Message tracking
-    private final Map<String, Long> sentCustomMessages = new ConcurrentHashMap<>();
-    private static final long MESSAGE_COOLDOWN = 2000; // 2 seconds
+    // All expirations share one timing wheel, ticked by the global region
+    // Pending sounds: jukebox positions that just had a disc inserted, whose vanilla sound we cancel
+    private static final int PENDING_SOUND = 0;
+    // Auto-ejection, keyed by the id of the active jukebox
+    private static final int AUTO_EJECT = 1;
+    // Players near a jukebox that just got a disc, whose chat packets are checked for the vanilla message
+    private static final int NOW_PLAYING = 2;
+    private static final long JUKEBOX_SOUND_WINDOW_TICKS = 10; // 500ms window to cancel original sound
+    private static final long MESSAGE_COOLDOWN_TICKS = 40; // 2 seconds per player and jukebox
+    private static final long NOW_PLAYING_WINDOW_TICKS = 60; // 3 seconds, covers the delayed disc check
+    private final TimingWheel expirations = new TimingWheel(3, this::onExpired);
+    private final AtomicLong nextJukeboxId = new AtomicLong();
     
-    // Track jukebox positions that just had a disc inserted
-    // We only cancel sounds coming from these specific locations
-    private final Map<String, Long> pendingJukeboxSounds = new ConcurrentHashMap<>();
-    private static final long JUKEBOX_SOUND_WINDOW = 500; // 500ms window to cancel original sound
+    // How the sound name is read from NAMED_SOUND_EFFECT packets, resolved once for the running version
+    private SoundNameReader soundNameReader = SoundNameReader.MODIFIER;
+    private SoundHolderFactory soundHolderFactory; // null without ProtocolLib or on unknown layouts
+    // How translation keys are read from chat components, or null to search their JSON
+    private TranslationKeyReader translationKeyReader;
     
     // Config values
     private boolean jukeboxEnabled;
@@ -55,37 +99,219 @@ public class JukeboxListener implements Listener {
     private float volume;
     private float pitch;
     private boolean autoEject;
+    private long scanIntervalTicks;
+    private long saveIntervalSeconds;
+    
+    // Jukebox index persisted across restarts
+    private JukeboxStore store;
+    
+    /**
+     * Field of a NAMED_SOUND_EFFECT packet holding the sound, which differs between
+     * protocol versions
+     */
+    private enum SoundNameReader {
+        /** A Bukkit Sound (or a holder of one) */
+        SOUND_EFFECT {
+            @Override
+            String read(PacketContainer packet) {
+                org.bukkit.Sound sound = packet.getSoundEffects().read(0);
+                return sound != null ? sound.getKey().getKey() : null;
+            }
+        },
+        /** The sound name as a string */
+        STRING {
+            @Override
+            String read(PacketContainer packet) {
+                return packet.getStrings().read(0);
+            }
+        },
+        /** Whatever the first field is, by its string form */
+        MODIFIER {
+            @Override
+            String read(PacketContainer packet) {
+                Object sound = packet.getModifier().read(0);
+                return sound != null ? sound.toString() : null;
+            }
+        };
+        
+        abstract String read(PacketContainer packet);
+        
+        /**
+         * Picks the first reader whose field exists in the packet layout
+         */
+        static SoundNameReader resolve(PacketContainer packet) {
+            if (packet.getSoundEffects().size() > 0) {
+                return SOUND_EFFECT;
+            }
+            if (packet.getStrings().size() > 0) {
+                return STRING;
+            }
+            return MODIFIER;
+        }
+    }
+    
+    /**
+     * Reads the translation key of a chat component handle by reflection, without
+     * serializing the component. Only translatable contents have a key.
+     */
+    private static final class TranslationKeyReader {
+        private final Method contentsMethod;
+        // Contents class -> its key field, or null for contents that are not translatable
+        private final ClassValue<Field> keyFields = new ClassValue<>() {
+            @Override
+            protected Field computeValue(Class<?> type) {
+                if (!type.getSimpleName().startsWith("Translatable")) return null;
+                for (Field field : type.getDeclaredFields()) {
+                    // The key is the first string field
+                    if (field.getType() == String.class && !Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        return field;
+                    }
+                }
+                return null;
+            }
+        };
+        
+        private TranslationKeyReader(Method contentsMethod) {
+            this.contentsMethod = contentsMethod;
+        }
+        
+        /**
+         * Gets the translation key of a component handle
+         * 
+         * @return The key, or null if the component is not translatable
+         */
+        String read(Object handle) throws ReflectiveOperationException {
+            Object contents = contentsMethod.invoke(handle);
+            if (contents == null) return null;
+            
+            Field keyField = keyFields.get(contents.getClass());
+            return keyField != null ? (String) keyField.get(contents) : null;
+        }
+        
+        /**
+         * Finds the contents accessor on the server's component class and checks
+         * the reader against a known translatable component
+         * 
+         * @return The reader, or null if the component layout is not supported
+         */
+        static TranslationKeyReader resolve() {
+            try {
+                Object probe = WrappedChatComponent.fromJson("{\"translate\":\"record.nowPlaying\"}").getHandle();
+                for (Method method : probe.getClass().getMethods()) {
+                    if (method.getParameterCount() == 0
+                            && method.getReturnType().getSimpleName().equals("ComponentContents")) {
+                        TranslationKeyReader reader = new TranslationKeyReader(method);
+                        return "record.nowPlaying".equals(reader.read(probe)) ? reader : null;
+                    }
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Unsupported layout, fall back to JSON
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * Builds the sound holder of a NAMED_SOUND_EFFECT packet for any sound key,
+     * including resource pack sounds the server does not know, by reflection
+     */
+    private static final class SoundHolderFactory {
+        private final Class<?> holderType;
+        private final Method createEvent;
+        private final Method direct;
+        
+        private SoundHolderFactory(Class<?> holderType, Method createEvent, Method direct) {
+            this.holderType = holderType;
+            this.createEvent = createEvent;
+            this.direct = direct;
+        }
+        
+        /**
+         * Creates a direct holder of a variable range sound event
+         */
+        Object create(Key soundKey) throws ReflectiveOperationException {
+            Object location = MinecraftKey.getConverter().getGeneric(new MinecraftKey(soundKey.namespace(), soundKey.value()));
+            return direct.invoke(null, createEvent.invoke(null, location));
+        }
+        
+        /**
+         * Finds the sound event factory and the direct holder factory, and checks
+         * that the packet has a holder field
+         * 
+         * @return The factory, or null if the packet layout is not supported
+         */
+        static SoundHolderFactory resolve(PacketContainer probe) {
+            try {
+                Class<?> soundEvent = MinecraftReflection.getSoundEffectClass();
+                Class<?> resourceLocation = MinecraftReflection.getMinecraftKeyClass();
+                Class<?> holder = MinecraftReflection.getMinecraftClass("core.Holder");
+                
+                // The variable range factory is the one taking only the key
+                Method createEvent = null;
+                for (Method method : soundEvent.getMethods()) {
+                    if (Modifier.isStatic(method.getModifiers()) && method.getReturnType() == soundEvent
+                            && method.getParameterCount() == 1 && method.getParameterTypes()[0] == resourceLocation) {
+                        createEvent = method;
+                        break;
+                    }
+                }
+                Method direct = null;
+                for (Method method : holder.getMethods()) {
+                    if (Modifier.isStatic(method.getModifiers()) && method.getReturnType() == holder
+                            && method.getParameterCount() == 1 && method.getParameterTypes()[0] == Object.class) {
+                        direct = method;
+                        break;
+                    }
+                }
+                if (createEvent == null || direct == null || probe.getModifier().withType(holder).size() == 0) {
+                    return null;
+                }
+                return new SoundHolderFactory(holder, createEvent, direct);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
     
     /**
      * Represents an active jukebox playing a custom sound
      */
     private static class ActiveJukebox {
-        final String discType;
-        final String customSound;
+        final Material discType;
+        final Key soundKey;
         final int duration;
-        final Set<UUID> playersHearing;
-        final ScheduledTask ejectionTask;
-        final ScheduledTask playerTrackingTask;
-        final long startTime;
+        final Set<Player> playersHearing;
+        final long id;
+        final Location location;
+        // Built once per playback and sent to every listener
+        final Sound sound; // Played through the audience without a prebuilt packet
+        final SoundStop soundStop;
+        final PacketContainer stopPacket; // null without ProtocolLib
+        final Component nowPlaying; // null if the disc has no display name
+        // Player key -> tick the message was sent, only touched on the jukebox's region
+        final LongLongMap messagesSent = new LongLongMap(8);
         
-        ActiveJukebox(String discType, String customSound, int duration, 
-                     ScheduledTask ejectionTask, ScheduledTask playerTrackingTask) {
+        ActiveJukebox(Material discType, Key soundKey, float volume, float pitch, int duration,
+                     long id, Location location, PacketContainer stopPacket, Component nowPlaying) {
             this.discType = discType;
-            this.customSound = customSound;
+            this.soundKey = soundKey;
             this.duration = duration;
             this.playersHearing = ConcurrentHashMap.newKeySet();
-            this.ejectionTask = ejectionTask;
-            this.playerTrackingTask = playerTrackingTask;
-            this.startTime = System.currentTimeMillis();
+            this.id = id;
+            this.location = location;
+            this.sound = Sound.sound(soundKey, Sound.Source.MASTER, volume, pitch);
+            this.soundStop = SoundStop.namedOnSource(soundKey, Sound.Source.MASTER);
+            this.stopPacket = stopPacket;
+            this.nowPlaying = nowPlaying;
         }
         
-        void cancel() {
-            if (ejectionTask != null && !ejectionTask.isCancelled()) {
-                ejectionTask.cancel();
-            }
-            if (playerTrackingTask != null && !playerTrackingTask.isCancelled()) {
-                playerTrackingTask.cancel();
-            }
+        /**
+         * Checks if a position is within a squared range of this jukebox
+         */
+        boolean isInRange(Location position, double rangeSquared) {
+            return position.getWorld() == location.getWorld()
+                    && position.distanceSquared(location) <= rangeSquared;
         }
     }
 
@@ -103,6 +329,8 @@ public class JukeboxListener implements Listener {
         volume = (float) plugin.getConfig().getDouble("jukebox.volume", 1.0);
         pitch = (float) plugin.getConfig().getDouble("jukebox.pitch", 1.0);
         autoEject = plugin.getConfig().getBoolean("jukebox.auto-eject", true);
+        scanIntervalTicks = Math.max(0L, plugin.getConfig().getLong("jukebox.scan-interval-seconds", 60L)) * 20L;
+        saveIntervalSeconds = Math.max(0L, plugin.getConfig().getLong("jukebox.save-interval-seconds", 300L));
     }
 
     /**
@@ -119,6 +347,28 @@ public class JukeboxListener implements Listener {
                 protocolManager = ProtocolLibrary.getProtocolManager();
                 protocolLibAvailable = true;
                 
+                try {
+                    soundNameReader = SoundNameReader.resolve(protocolManager.createPacket(PacketType.Play.Server.NAMED_SOUND_EFFECT));
+                } catch (RuntimeException e) {
+                    plugin.getLogger().warning("Could not inspect the sound packet layout, reading sound names generically: " + e.getMessage());
+                }
+                SoundNameReader resolvedReader = soundNameReader;
+                plugin.trace(DebugTrace.Category.SOUND, () -> "Reading sound names with " + resolvedReader);
+                
+                try {
+                    soundHolderFactory = SoundHolderFactory.resolve(protocolManager.createPacket(PacketType.Play.Server.NAMED_SOUND_EFFECT));
+                } catch (RuntimeException e) {
+                    soundHolderFactory = null;
+                }
+                if (soundHolderFactory == null) {
+                    plugin.getLogger().warning("Could not build sound packets, playing custom sounds per player");
+                }
+                
+                translationKeyReader = TranslationKeyReader.resolve();
+                if (translationKeyReader == null) {
+                    plugin.getLogger().warning("Could not read translation keys from chat components, detecting jukebox messages by JSON");
+                }
+                
                 // Intercept NAMED_SOUND_EFFECT packets (music discs)
                 protocolManager.addPacketListener(new PacketAdapter(
                     plugin,
@@ -126,7 +376,9 @@ public class JukeboxListener implements Listener {
                 ) {
                     @Override
                     public void onPacketSending(PacketEvent event) {
+                        long start = plugin.getMetrics().start();
                         handleNamedSoundPacket(event);
+                        plugin.getMetrics().stop(PluginMetrics.Timer.NAMED_SOUND_PACKET, start);
                     }
                 });
                 
@@ -137,7 +389,9 @@ public class JukeboxListener implements Listener {
                 ) {
                     @Override
                     public void onPacketSending(PacketEvent event) {
+                        long start = plugin.getMetrics().start();
                         handleWorldEventPacket(event);
+                        plugin.getMetrics().stop(PluginMetrics.Timer.WORLD_EVENT_PACKET, start);
                     }
                 });
                 
@@ -148,7 +402,9 @@ public class JukeboxListener implements Listener {
                 ) {
                     @Override
                     public void onPacketSending(PacketEvent event) {
+                        long start = plugin.getMetrics().start();
                         handleChatPacket(event);
+                        plugin.getMetrics().stop(PluginMetrics.Timer.SYSTEM_CHAT_PACKET, start);
                     }
                 });
                 
@@ -159,7 +415,9 @@ public class JukeboxListener implements Listener {
                 ) {
                     @Override
                     public void onPacketSending(PacketEvent event) {
+                        long start = plugin.getMetrics().start();
                         handleActionBarPacket(event);
+                        plugin.getMetrics().stop(PluginMetrics.Timer.ACTION_BAR_PACKET, start);
                     }
                 });
                 
@@ -174,83 +432,173 @@ public class JukeboxListener implements Listener {
     }
     
     /**
-     * Handles NAMED_SOUND_EFFECT packets - cancels vanilla music disc sounds
+     * Handles NAMED_SOUND_EFFECT packets - cancels vanilla music disc sounds.
+     * Runs for every sound sent to every player; the prefilter rejects nearly all of
+     * them before the sound name is read.
      */
     private void handleNamedSoundPacket(PacketEvent event) {
+        if (!hasPendingSounds()) return;
+        
         try {
             PacketContainer packet = event.getPacket();
             
-            // Try multiple approaches to get the sound name
-            String soundName = null;
+            // Get the sound position (fixed-point * 8; shift floors so negative coordinates hit the right block)
+            int x = packet.getIntegers().read(0) >> 3;
+            int y = packet.getIntegers().read(1) >> 3;
+            int z = packet.getIntegers().read(2) >> 3;
+            if (!passesSoundPrefilter(event.getPlayer().getWorld(), x, z)) return;
             
-            // Approach 1: Try getting as a Sound object
-            try {
-                Sound sound = packet.getSoundEffects().read(0);
-                if (sound != null) {
-                    soundName = sound.getKey().getKey();
-                }
-            } catch (Exception ignored) {}
-            
-            // Approach 2: Try getting as a string directly
-            if (soundName == null) {
-                try {
-                    soundName = packet.getStrings().read(0);
-                } catch (Exception ignored) {}
-            }
-            
-            // Approach 3: Try getting via generic modifier
-            if (soundName == null) {
-                try {
-                    Object soundObj = packet.getModifier().read(0);
-                    if (soundObj != null) {
-                        soundName = soundObj.toString();
-                    }
-                } catch (Exception ignored) {}
-            }
-            
-            // Debug: Log all sound packets if debug is enabled
-            if (plugin.isDebugMode() && soundName != null) {
-                plugin.debug("NAMED_SOUND_EFFECT packet: " + soundName);
-            }
+            String soundName = soundNameReader.read(packet);
             
             // Check if it's a music disc sound
-            if (soundName != null && (soundName.contains("music_disc") || 
-                soundName.contains("music.disc") || soundName.contains("record"))) {
-                
-                // Get the sound position (coordinates are in fixed-point format * 8)
-                try {
-                    int x = packet.getIntegers().read(0) / 8;
-                    int y = packet.getIntegers().read(1) / 8;
-                    int z = packet.getIntegers().read(2) / 8;
-                    
-                    String posKey = x + "," + y + "," + z;
-                    
-                    // Only cancel if this position is in our pending list (recent disc insert)
-                    long currentTime = System.currentTimeMillis();
-                    Long insertTime = pendingJukeboxSounds.get(posKey);
-                    
-                    if (insertTime != null && (currentTime - insertTime) <= JUKEBOX_SOUND_WINDOW) {
-                        event.setCancelled(true);
-                        plugin.debug("✓ Cancelled NAMED_SOUND_EFFECT from tracked jukebox at " + posKey + ": " + soundName);
-                    } else {
-                        plugin.debug("Allowing NAMED_SOUND_EFFECT (not from tracked jukebox): " + soundName + " at " + posKey);
-                    }
-                } catch (Exception e) {
-                    plugin.debug("Could not get sound position, allowing: " + soundName);
-                }
+            if (!isMusicDiscSound(soundName)) return;
+            
+            // Only cancel if this position is in our pending list (recent disc insert)
+            if (isPendingSound(x, y, z)) {
+                event.setCancelled(true);
+                plugin.trace(DebugTrace.Category.SOUND, () -> "✓ Cancelled NAMED_SOUND_EFFECT from tracked jukebox at " + x + "," + y + "," + z + ": " + soundName);
+            } else {
+                plugin.trace(DebugTrace.Category.SOUND, () -> "Allowing NAMED_SOUND_EFFECT (not from tracked jukebox): " + soundName + " at " + x + "," + y + "," + z);
             }
         } catch (Exception e) {
-            if (plugin.isDebugMode()) {
-                plugin.debug("Error in NAMED_SOUND_EFFECT handler: " + e.getMessage());
-                e.printStackTrace();
+            plugin.trace(DebugTrace.Category.SOUND, () -> "Error in NAMED_SOUND_EFFECT handler: " + e);
+        }
+    }
+    
+    /**
+     * Gets the index of known jukeboxes
+     */
+    JukeboxIndex getKnownJukeboxes() {
+        return knownJukeboxes;
+    }
+    
+    /**
+     * Checks if any jukebox is waiting for its vanilla disc sound to be cancelled
+     */
+    boolean hasPendingSounds() {
+        return !expirations.isEmpty(PENDING_SOUND);
+    }
+    
+    /**
+     * Checks if a sound at a position could come from a jukebox with a pending insert:
+     * some insert is pending and the position lies in a chunk with a known jukebox
+     */
+    boolean passesSoundPrefilter(World world, int x, int z) {
+        return hasPendingSounds() && knownJukeboxes.containsChunk(world, x >> 4, z >> 4);
+    }
+    
+    /**
+     * Checks if a sound name belongs to a music disc
+     * 
+     * @param soundName The sound name, may be null
+     * @return true for music disc sounds
+     */
+    static boolean isMusicDiscSound(String soundName) {
+        return soundName != null && (soundName.contains("music_disc")
+                || soundName.contains("music.disc") || soundName.contains("record"));
+    }
+    
+    /**
+     * Checks if a disc was recently inserted into the jukebox at a position,
+     * meaning its vanilla sound should be cancelled
+     */
+    boolean isPendingSound(int x, int y, int z) {
+        return expirations.isScheduled(PENDING_SOUND, JukeboxIndex.pack(x, y, z));
+    }
+    
+    /**
+     * Marks a jukebox position whose vanilla disc sound is about to be sent
+     */
+    void markPendingSound(int x, int y, int z) {
+        expirations.schedule(PENDING_SOUND, JukeboxIndex.pack(x, y, z), JUKEBOX_SOUND_WINDOW_TICKS, null);
+    }
+    
+    /**
+     * Checks if a chat or action bar component JSON is the vanilla "Now playing" message.
+     * Only used if translation keys cannot be read directly.
+     * 
+     * @param json The component JSON
+     * @return true for jukebox messages
+     */
+    static boolean isJukeboxMessage(String json) {
+        return json.contains("record.nowPlaying") || (json.contains("translate") && json.contains("record."));
+    }
+    
+    /**
+     * Checks if a translation key belongs to the vanilla "Now playing" message
+     * 
+     * @param key The translation key, may be null
+     * @return true for jukebox messages
+     */
+    static boolean isJukeboxTranslationKey(String key) {
+        return key != null && key.startsWith("record.");
+    }
+    
+    /**
+     * Checks if a chat or action bar component is the vanilla "Now playing" message,
+     * by its translation key where possible
+     */
+    private boolean isJukeboxMessage(WrappedChatComponent component) throws ReflectiveOperationException {
+        TranslationKeyReader reader = translationKeyReader;
+        if (reader != null) {
+            return isJukeboxTranslationKey(reader.read(component.getHandle()));
+        }
+        return isJukeboxMessage(component.getJson());
+    }
+    
+    /**
+     * Checks if a player is near a jukebox that recently started playing, so their
+     * chat packets may carry the vanilla message
+     */
+    boolean isNowPlayingListener(UUID uuid) {
+        return !expirations.isEmpty(NOW_PLAYING) && expirations.isScheduled(NOW_PLAYING, playerKey(uuid));
+    }
+    
+    /**
+     * Marks a player whose chat packets are checked for the vanilla message for a while
+     */
+    void markNowPlayingListener(UUID uuid) {
+        expirations.schedule(NOW_PLAYING, playerKey(uuid), NOW_PLAYING_WINDOW_TICKS, null);
+    }
+    
+    /**
+     * Marks every player in range of a jukebox that is getting a disc.
+     * Runs on the jukebox's region.
+     */
+    private void markNowPlayingListeners(Location jukeboxLoc) {
+        for (Player player : playersInRange(jukeboxLoc)) {
+            markNowPlayingListener(player.getUniqueId());
+        }
+    }
+    
+    /**
+     * Gets the players within sound range of a jukebox from the region's own
+     * entity lookup, so only players the calling region owns are read.
+     * Runs on the jukebox's region.
+     */
+    private List<Player> playersInRange(Location jukeboxLoc) {
+        if (jukeboxLoc.getWorld() == null) return List.of();
+        
+        double rangeSquared = (double) soundRange * soundRange;
+        List<Player> players = new ArrayList<>();
+        for (Player player : jukeboxLoc.getNearbyPlayers(soundRange)) {
+            if (player.getLocation().distanceSquared(jukeboxLoc) <= rangeSquared) {
+                players.add(player);
             }
         }
+        return players;
+    }
+    
+    private static long playerKey(UUID uuid) {
+        return uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
     }
     
     /**
      * Handles WORLD_EVENT packets - jukeboxes use event ID 1010 to play/stop
      */
     private void handleWorldEventPacket(PacketEvent event) {
+        if (!hasPendingSounds()) return;
+        
         try {
             PacketContainer packet = event.getPacket();
             
@@ -261,28 +609,20 @@ public class JukeboxListener implements Listener {
             if (eventId == 1010) {
                 // Get the block position from the packet
                 BlockPosition blockPos = packet.getBlockPositionModifier().read(0);
-                String posKey = blockPos.getX() + "," + blockPos.getY() + "," + blockPos.getZ();
                 
                 // Check if this jukebox is in our pending list
-                long currentTime = System.currentTimeMillis();
-                Long insertTime = pendingJukeboxSounds.get(posKey);
-                
-                if (insertTime != null && (currentTime - insertTime) <= JUKEBOX_SOUND_WINDOW) {
+                if (isPendingSound(blockPos.getX(), blockPos.getY(), blockPos.getZ())) {
                     // Cancel the world event from tracked jukebox
                     event.setCancelled(true);
-                    plugin.debug("✓ Cancelled WORLD_EVENT 1010 from tracked jukebox at " + posKey);
+                    plugin.trace(DebugTrace.Category.SOUND, () -> "✓ Cancelled WORLD_EVENT 1010 from tracked jukebox at " + blockPos);
                 } else {
-                    plugin.debug("Allowing WORLD_EVENT 1010 (not from tracked jukebox) at " + posKey);
+                    plugin.trace(DebugTrace.Category.SOUND, () -> "Allowing WORLD_EVENT 1010 (not from tracked jukebox) at " + blockPos);
                 }
             } else if (eventId == 1011) {
-                if (plugin.isDebugMode()) {
-                    plugin.debug("WORLD_EVENT 1011 (jukebox stop)");
-                }
+                plugin.trace(DebugTrace.Category.SOUND, () -> "WORLD_EVENT 1011 (jukebox stop)");
             }
         } catch (Exception e) {
-            if (plugin.isDebugMode()) {
-                plugin.debug("Error in WORLD_EVENT handler: " + e.getMessage());
-            }
+            plugin.trace(DebugTrace.Category.SOUND, () -> "Error in WORLD_EVENT handler: " + e.getMessage());
         }
     }
     
@@ -291,29 +631,24 @@ public class JukeboxListener implements Listener {
      */
     private void handleChatPacket(PacketEvent event) {
         try {
+            // Chat of players away from freshly started jukeboxes passes untouched
+            Player player = event.getPlayer();
+            if (!isNowPlayingListener(player.getUniqueId())) return;
+            
             PacketContainer packet = event.getPacket();
             WrappedChatComponent component = packet.getChatComponents().read(0);
             if (component == null) return;
             
-            String json = component.getJson();
-            
-            if (json.contains("record.nowPlaying") || 
-                (json.contains("translate") && json.contains("record."))) {
+            if (isJukeboxMessage(component)) {
                 event.setCancelled(true);
                 
-                if (plugin.isDebugMode()) {
-                    plugin.debug("Cancelled vanilla SYSTEM_CHAT jukebox message");
-                }
+                plugin.trace(DebugTrace.Category.CHAT, () -> "Cancelled vanilla SYSTEM_CHAT jukebox message");
                 
-                Player player = event.getPlayer();
-                Bukkit.getRegionScheduler().runDelayed(plugin, player.getLocation(), (task) -> {
-                    sendReplacementMessage(player);
-                }, 1L);
+                // The packet thread does not own the player, their scheduler does
+                player.getScheduler().runDelayed(plugin, (task) -> sendReplacementMessage(player), null, 1L);
             }
         } catch (Exception e) {
-            if (plugin.isDebugMode()) {
-                plugin.debug("Error in chat packet handler: " + e.getMessage());
-            }
+            plugin.trace(DebugTrace.Category.CHAT, () -> "Error in chat packet handler: " + e.getMessage());
         }
     }
     
@@ -322,82 +657,184 @@ public class JukeboxListener implements Listener {
      */
     private void handleActionBarPacket(PacketEvent event) {
         try {
+            // Chat of players away from freshly started jukeboxes passes untouched
+            Player player = event.getPlayer();
+            if (!isNowPlayingListener(player.getUniqueId())) return;
+            
             PacketContainer packet = event.getPacket();
             WrappedChatComponent component = packet.getChatComponents().read(0);
             if (component == null) return;
             
-            String json = component.getJson();
-            
-            if (json.contains("record.nowPlaying") || 
-                (json.contains("translate") && json.contains("record."))) {
+            if (isJukeboxMessage(component)) {
                 event.setCancelled(true);
                 
-                if (plugin.isDebugMode()) {
-                    plugin.debug("Cancelled vanilla ACTION_BAR jukebox message");
-                }
+                plugin.trace(DebugTrace.Category.CHAT, () -> "Cancelled vanilla ACTION_BAR jukebox message");
                 
-                Player player = event.getPlayer();
-                Bukkit.getRegionScheduler().runDelayed(plugin, player.getLocation(), (task) -> {
-                    sendReplacementMessage(player);
-                }, 1L);
+                // The packet thread does not own the player, their scheduler does
+                player.getScheduler().runDelayed(plugin, (task) -> sendReplacementMessage(player), null, 1L);
             }
         } catch (Exception e) {
-            if (plugin.isDebugMode()) {
-                plugin.debug("Error in action bar packet handler: " + e.getMessage());
-            }
+            plugin.trace(DebugTrace.Category.CHAT, () -> "Error in action bar packet handler: " + e.getMessage());
         }
     }
 
     /**
-     * Handles player interaction with jukeboxes
+     * Handles player interaction with jukeboxes: inserting a disc, or taking it out
      */
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerInteract(PlayerInteractEvent event) {
-        if (!jukeboxEnabled || !protocolLibAvailable) return;
+        if (!jukeboxEnabled) return;
         
         if (event.getAction() != Action.RIGHT_CLICK_BLOCK) return;
         
         Block block = event.getClickedBlock();
         if (block == null || block.getType() != Material.JUKEBOX) return;
         
+        Location jukeboxLoc = block.getLocation();
+        knownJukeboxes.add(jukeboxLoc);
+        
         ItemStack item = event.getItem();
         
         // Handle disc insertion
-        if (item != null && item.getType().name().startsWith("MUSIC_DISC_")) {
-            Location jukeboxLoc = block.getLocation();
-            knownJukeboxes.add(jukeboxLoc);
-            
+        if (protocolLibAvailable && item != null && item.getType().isRecord()) {
             // Check if this disc type has a custom sound configured
-            String discType = item.getType().name();
-            ItemRemapperPlugin.ItemRemap remap = plugin.getItemRemap(discType);
+            Material discType = item.getType();
+            ItemRemapperPlugin.ItemRemap remap = plugin.getItemRemap(item);
             
-            // Only track jukebox if the disc has a custom sound configured
+            // Only cancel the vanilla sound if the disc has a custom sound configured
             if (remap != null && remap.hasCustomSound()) {
-                String posKey = jukeboxLoc.getBlockX() + "," + jukeboxLoc.getBlockY() + "," + jukeboxLoc.getBlockZ();
-                pendingJukeboxSounds.put(posKey, System.currentTimeMillis());
-                plugin.debug("Tracked jukebox at " + posKey + " for sound cancellation (custom sound: " + remap.getCustomSound() + ")");
+                markPendingSound(jukeboxLoc.getBlockX(), jukeboxLoc.getBlockY(), jukeboxLoc.getBlockZ());
+                plugin.trace(DebugTrace.Category.JUKEBOX, () -> "Tracked jukebox at " + jukeboxLoc.getBlockX() + "," + jukeboxLoc.getBlockY() + "," + jukeboxLoc.getBlockZ()
+                        + " for sound cancellation (custom sound: " + remap.getCustomSound() + ")");
             } else {
-                plugin.debug("Disc " + discType + " has no custom sound - allowing vanilla playback");
+                plugin.trace(DebugTrace.Category.JUKEBOX, () -> "Disc " + discType + " has no custom sound - allowing vanilla playback");
             }
             
-            // Schedule disc insertion check
-            Bukkit.getRegionScheduler().runDelayed(plugin, jukeboxLoc, (task) -> {
-                if (block.getState() instanceof Jukebox jukebox) {
-                    handleDiscInsertion(jukebox);
-                }
-            }, 3L);
-        } 
-        // Handle disc removal
-        else if (item == null || item.getType() == Material.AIR) {
-            if (block.getState() instanceof Jukebox jukebox) {
-                ItemStack currentDisc = jukebox.getRecord();
-                if (currentDisc != null && currentDisc.getType() != Material.AIR) {
-                    // Player is removing the disc
-                    Location loc = jukebox.getLocation();
-                    Bukkit.getRegionScheduler().runDelayed(plugin, loc, (task) -> {
-                        handleDiscRemoval(loc);
-                    }, 1L);
+            // The vanilla message may go out before the disc check runs
+            markNowPlayingListeners(jukeboxLoc);
+        }
+        
+        // The click inserts or ejects a disc once the event is done
+        scheduleCheck(jukeboxLoc, 3L);
+    }
+    
+    /**
+     * Handles hoppers and droppers putting discs into jukebox or pulling them out
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryMoveItem(InventoryMoveItemEvent event) {
+        if (!jukeboxEnabled) return;
+        
+        checkJukeboxInventory(event.getDestination());
+        checkJukeboxInventory(event.getSource());
+    }
+    
+    private void checkJukeboxInventory(Inventory inventory) {
+        if (inventory.getType() != InventoryType.JUKEBOX) return;
+        
+        Location jukeboxLoc = inventory.getLocation();
+        if (jukeboxLoc == null || jukeboxLoc.getWorld() == null) return;
+        
+        jukeboxLoc = jukeboxLoc.toBlockLocation();
+        knownJukeboxes.add(jukeboxLoc);
+        // The event fires before the item moves
+        scheduleCheck(jukeboxLoc, 1L);
+    }
+    
+    /**
+     * Tracks newly placed jukeboxes
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        if (!jukeboxEnabled) return;
+        
+        Block block = event.getBlockPlaced();
+        if (block.getType() == Material.JUKEBOX) {
+            knownJukeboxes.add(block.getLocation());
+        }
+    }
+    
+    /**
+     * Forgets broken jukeboxes and stops their playback
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        forgetJukebox(event.getBlock());
+    }
+    
+    /**
+     * Forgets jukeboxes destroyed by creepers, TNT and other entity explosions
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            forgetJukebox(block);
+        }
+    }
+    
+    /**
+     * Forgets jukeboxes destroyed by beds, respawn anchors and other block explosions
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            forgetJukebox(block);
+        }
+    }
+    
+    private void forgetJukebox(Block block) {
+        if (!jukeboxEnabled || block.getType() != Material.JUKEBOX) return;
+        
+        Location loc = block.getLocation();
+        knownJukeboxes.remove(loc);
+        stopJukeboxPlayback(loc);
+        plugin.trace(DebugTrace.Category.JUKEBOX, () -> "Jukebox at " + loc + " was destroyed");
+    }
+    
+    /**
+     * Schedules a state check of a jukebox on its region
+     */
+    private void scheduleCheck(Location jukeboxLoc, long delayTicks) {
+        Bukkit.getRegionScheduler().runDelayed(plugin, jukeboxLoc, (task) -> checkJukebox(jukeboxLoc), delayTicks);
+    }
+    
+    /**
+     * Compares a jukebox's record with its playback and starts or stops the
+     * custom sound. Runs on the jukebox's region.
+     */
+    private void checkJukebox(Location loc) {
+        Block block = loc.getBlock();
+        
+        if (block.getType() != Material.JUKEBOX) {
+            knownJukeboxes.remove(loc);
+            stopJukeboxPlayback(loc);
+            return;
+        }
+        
+        if (block.getState() instanceof Jukebox jukebox) {
+            ItemStack record = jukebox.getRecord();
+            ActiveJukebox activeJukebox = activeJukeboxes.get(loc.getWorld(), JukeboxIndex.pack(loc));
+            
+            Material currentDiscType = null;
+            if (record != null && record.getType() != Material.AIR) {
+                currentDiscType = record.getType();
+            }
+            
+            // Case 1: Disc was removed
+            if (currentDiscType == null && activeJukebox != null) {
+                handleDiscRemoval(loc);
+            }
+            // Case 2: New disc was inserted (or different disc)
+            else if (currentDiscType != null && 
+                    (activeJukebox == null || currentDiscType != activeJukebox.discType)) {
+                Material insertedType = currentDiscType;
+                plugin.trace(DebugTrace.Category.JUKEBOX, () -> "Detected disc insertion: " + insertedType + " at " + loc);
+                
+                // Hoppers and discs without a custom sound get the remapped message too
+                if (protocolLibAvailable) {
+                    markNowPlayingListeners(loc);
                 }
+                handleDiscInsertion(jukebox);
             }
         }
     }
@@ -411,11 +848,11 @@ public class JukeboxListener implements Listener {
         
         if (record == null || record.getType() == Material.AIR) return;
         
-        String discType = record.getType().name();
-        ItemRemapperPlugin.ItemRemap remap = plugin.getItemRemap(discType);
+        Material discType = record.getType();
+        ItemRemapperPlugin.ItemRemap remap = plugin.getItemRemap(record);
         
         if (remap == null || !remap.hasCustomSound()) {
-            plugin.debug("No custom sound configured for " + discType);
+            plugin.trace(DebugTrace.Category.JUKEBOX, () -> "No custom sound configured for " + discType);
             return;
         }
         
@@ -425,98 +862,199 @@ public class JukeboxListener implements Listener {
         String customSound = remap.getCustomSound();
         int duration = remap.getDuration();
         
-        plugin.debug("Starting custom sound playback: " + customSound + " (duration: " + duration + "s)");
+        Key soundKey;
+        try {
+            soundKey = Key.key(customSound);
+        } catch (InvalidKeyException e) {
+            plugin.getLogger().warning("Invalid custom sound '" + customSound + "' for " + discType + ": " + e.getMessage());
+            return;
+        }
+        
+        plugin.trace(DebugTrace.Category.JUKEBOX, () -> "Starting custom sound playback: " + customSound + " (duration: " + duration + "s)");
         
         // Schedule auto-ejection if enabled
-        ScheduledTask ejectionTask = null;
+        long id = nextJukeboxId.incrementAndGet();
         if (autoEject && duration > 0) {
-            ejectionTask = Bukkit.getRegionScheduler().runDelayed(plugin, jukeboxLoc, (task) -> {
-                ejectDisc(jukeboxLoc);
-            }, duration * 20L); // Convert seconds to ticks
+            expirations.schedule(AUTO_EJECT, id, duration * 20L, jukeboxLoc); // Convert seconds to ticks
         }
         
-        // Start player tracking task
-        ScheduledTask trackingTask = Bukkit.getRegionScheduler().runAtFixedRate(plugin, jukeboxLoc, (task) -> {
-            updatePlayersInRange(jukeboxLoc);
-        }, 1L, 20L); // Check every second
-        
-        // Create active jukebox entry
+        // Create active jukebox entry; players leaving range are tracked by their movement
         ActiveJukebox activeJukebox = new ActiveJukebox(
-            discType, customSound, duration, ejectionTask, trackingTask
+            discType, soundKey, volume, pitch, duration, id, jukeboxLoc, createStopSoundPacket(soundKey),
+            remap.getNowPlayingComponent()
         );
         
-        activeJukeboxes.put(jukeboxLoc, activeJukebox);
+        activeJukeboxes.put(jukeboxLoc.getWorld(), JukeboxIndex.pack(jukeboxLoc), activeJukebox);
         
         // Initial playback to all players in range
-        playCustomSoundToNearbyPlayers(jukeboxLoc, customSound);
+        playCustomSoundToNearbyPlayers(activeJukebox);
         
         // Send custom message
-        sendCustomMessageToNearbyPlayers(jukebox);
+        sendCustomMessageToNearbyPlayers(activeJukebox);
     }
     
     /**
-     * Monitors players and stops sound for those who leave range
-     * Note: Does NOT start sound for players entering range mid-song
+     * Checks range when a player moves into another chunk
      */
-    private void updatePlayersInRange(Location jukeboxLoc) {
-        ActiveJukebox activeJukebox = activeJukeboxes.get(jukeboxLoc);
-        if (activeJukebox == null) return;
-        
-        World world = jukeboxLoc.getWorld();
-        if (world == null) return;
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (from.getWorld() == to.getWorld()
+                && from.getBlockX() >> 4 == to.getBlockX() >> 4
+                && from.getBlockZ() >> 4 == to.getBlockZ() >> 4) {
+            return;
+        }
+        updateHearing(event.getPlayer(), to);
+    }
+    
+    /**
+     * Checks range after teleports, including ender pearls and portals
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        updateHearing(event.getPlayer(), event.getTo());
+    }
+    
+    /**
+     * Checks range after respawning
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        updateHearing(event.getPlayer(), event.getRespawnLocation());
+    }
+    
+    /**
+     * Stops every jukebox of the old world for a player who changed worlds
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        updateHearing(event.getPlayer(), event.getPlayer().getLocation());
+    }
+    
+    /**
+     * Drops a leaving player from all jukeboxes
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        Set<ActiveJukebox> hearing = hearingByPlayer.remove(player.getUniqueId());
+        if (hearing == null) return;
         
-        Set<UUID> currentPlayersInRange = new HashSet<>();
+        for (ActiveJukebox activeJukebox : hearing) {
+            activeJukebox.playersHearing.remove(player);
+        }
+    }
+    
+    /**
+     * Stops sound for the jukeboxes a player no longer is in range of.
+     * Only the jukeboxes the player hears are checked.
+     * Note: Does NOT start sound for players entering range mid-song
+     */
+    private void updateHearing(Player player, Location position) {
+        Set<ActiveJukebox> hearing = hearingByPlayer.get(player.getUniqueId());
+        if (hearing == null || hearing.isEmpty()) return;
         
-        // Find all players currently in range
-        for (Player player : world.getPlayers()) {
-            if (player.getLocation().distance(jukeboxLoc) <= soundRange) {
-                currentPlayersInRange.add(player.getUniqueId());
+        double rangeSquared = (double) soundRange * soundRange;
+        for (ActiveJukebox activeJukebox : hearing) {
+            if (activeJukebox.isInRange(position, rangeSquared)) continue;
+            
+            // Stop the sound for players who left range
+            sendStopSound(activeJukebox, List.of(player));
+            activeJukebox.playersHearing.remove(player);
+            hearing.remove(activeJukebox);
+            
+            plugin.trace(DebugTrace.Category.JUKEBOX, () -> "Player " + player.getName() + " left jukebox range, stopping sound");
+        }
+        // Sound only plays for players who were in range when disc was inserted
+    }
+    
+    /**
+     * Plays custom sound to all nearby players. One play packet is built and sent
+     * as is to each of them; without it the sound goes through one audience.
+     */
+    private void playCustomSoundToNearbyPlayers(ActiveJukebox activeJukebox) {
+        Location jukeboxLoc = activeJukebox.location;
+        List<Player> listeners = playersInRange(jukeboxLoc);
+        for (Player player : listeners) {
+            activeJukebox.playersHearing.add(player);
+            hearingByPlayer.computeIfAbsent(player.getUniqueId(), uuid -> ConcurrentHashMap.newKeySet()).add(activeJukebox);
+        }
+        PacketContainer playPacket = createPlaySoundPacket(activeJukebox);
+        if (playPacket != null) {
+            for (Player player : listeners) {
+                protocolManager.sendServerPacket(player, playPacket, false);
             }
+        } else {
+            Audience.audience(listeners).playSound(activeJukebox.sound, jukeboxLoc.getX(), jukeboxLoc.getY(), jukeboxLoc.getZ());
         }
         
-        // Find players who left range (they were hearing, but are no longer in range)
-        Set<UUID> leftPlayers = new HashSet<>(activeJukebox.playersHearing);
-        leftPlayers.removeAll(currentPlayersInRange);
-        
-        // Stop sound ONLY for players who left range
-        for (UUID uuid : leftPlayers) {
-            Player player = Bukkit.getPlayer(uuid);
-            if (player != null) {
-                // Stop the sound for players who left range
-                player.stopSound(activeJukebox.customSound);
-                activeJukebox.playersHearing.remove(uuid);
-                
-                if (plugin.isDebugMode()) {
-                    plugin.debug("Player " + player.getName() + " left jukebox range, stopping sound");
-                }
+        int playerCount = listeners.size();
+        plugin.trace(DebugTrace.Category.JUKEBOX, () -> "Started custom sound for " + playerCount + " players in range");
+    }
+    
+    /**
+     * Stops a jukebox's sound for players. The prebuilt stop packet is sent as is
+     * to each of them; without ProtocolLib the stop goes through the audience.
+     */
+    private void sendStopSound(ActiveJukebox activeJukebox, Collection<Player> players) {
+        if (activeJukebox.stopPacket == null) {
+            Audience.audience(players).stopSound(activeJukebox.soundStop);
+            return;
+        }
+        for (Player player : players) {
+            if (player.isOnline()) {
+                protocolManager.sendServerPacket(player, activeJukebox.stopPacket, false);
             }
         }
-        
-        // Note: We do NOT start sound for players entering range
-        // Sound only plays for players who were in range when disc was inserted
     }
     
     /**
-     * Plays custom sound to all nearby players
+     * Builds the play packet of a jukebox's sound once per insertion. Sent unfiltered,
+     * so the sound listener does not cancel it.
+     * 
+     * @return The packet, or null without ProtocolLib or if the packet layout is unknown
      */
-    private void playCustomSoundToNearbyPlayers(Location jukeboxLoc, String customSound) {
-        World world = jukeboxLoc.getWorld();
-        if (world == null) return;
+    private PacketContainer createPlaySoundPacket(ActiveJukebox activeJukebox) {
+        if (soundHolderFactory == null) return null;
         
-        ActiveJukebox activeJukebox = activeJukeboxes.get(jukeboxLoc);
-        if (activeJukebox == null) return;
-        
-        int count = 0;
-        for (Player player : world.getPlayers()) {
-            if (player.getLocation().distance(jukeboxLoc) <= soundRange) {
-                player.playSound(jukeboxLoc, customSound, volume, pitch);
-                activeJukebox.playersHearing.add(player.getUniqueId());
-                count++;
-            }
+        Location jukeboxLoc = activeJukebox.location;
+        try {
+            PacketContainer packet = protocolManager.createPacket(PacketType.Play.Server.NAMED_SOUND_EFFECT);
+            packet.getModifier().withType(soundHolderFactory.holderType).write(0, soundHolderFactory.create(activeJukebox.soundKey));
+            packet.getSoundCategories().write(0, EnumWrappers.SoundCategory.MASTER);
+            // Positions are fixed-point * 8
+            packet.getIntegers()
+                    .write(0, (int) (jukeboxLoc.getX() * 8.0))
+                    .write(1, (int) (jukeboxLoc.getY() * 8.0))
+                    .write(2, (int) (jukeboxLoc.getZ() * 8.0));
+            packet.getFloat()
+                    .write(0, activeJukebox.sound.volume())
+                    .write(1, activeJukebox.sound.pitch());
+            packet.getLongs().write(0, ThreadLocalRandom.current().nextLong());
+            return packet;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            plugin.trace(DebugTrace.Category.SOUND, () -> "Could not build NAMED_SOUND_EFFECT packet, playing through the audience: " + e);
+            return null;
         }
+    }
+    
+    /**
+     * Builds the stop packet of a sound once per playback
+     * 
+     * @return The packet, or null without ProtocolLib or if the packet layout is unknown
+     */
+    private PacketContainer createStopSoundPacket(Key soundKey) {
+        if (!protocolLibAvailable) return null;
         
-        if (plugin.isDebugMode()) {
-            plugin.debug("Started custom sound for " + count + " players in range");
+        try {
+            PacketContainer packet = protocolManager.createPacket(PacketType.Play.Server.STOP_SOUND);
+            packet.getMinecraftKeys().write(0, new MinecraftKey(soundKey.namespace(), soundKey.value()));
+            packet.getSoundCategories().write(0, EnumWrappers.SoundCategory.MASTER);
+            return packet;
+        } catch (RuntimeException e) {
+            plugin.trace(DebugTrace.Category.SOUND, () -> "Could not build STOP_SOUND packet, stopping sounds per player: " + e);
+            return null;
         }
     }
     
@@ -525,34 +1063,32 @@ public class JukeboxListener implements Listener {
      */
     private void handleDiscRemoval(Location jukeboxLoc) {
         stopJukeboxPlayback(jukeboxLoc);
-        plugin.debug("Disc removed from jukebox at " + jukeboxLoc);
+        plugin.trace(DebugTrace.Category.JUKEBOX, () -> "Disc removed from jukebox at " + jukeboxLoc);
     }
     
     /**
      * Stops playback at a jukebox location
      */
     private void stopJukeboxPlayback(Location jukeboxLoc) {
-        ActiveJukebox activeJukebox = activeJukeboxes.remove(jukeboxLoc);
+        ActiveJukebox activeJukebox = activeJukeboxes.remove(jukeboxLoc.getWorld(), JukeboxIndex.pack(jukeboxLoc));
         if (activeJukebox == null) return;
         
-        // Cancel tasks
-        activeJukebox.cancel();
+        // Cancel expirations
+        expirations.cancel(AUTO_EJECT, activeJukebox.id);
         
         // Clean up position tracking
-        String posKey = jukeboxLoc.getBlockX() + "," + jukeboxLoc.getBlockY() + "," + jukeboxLoc.getBlockZ();
-        pendingJukeboxSounds.remove(posKey);
+        expirations.cancel(PENDING_SOUND, JukeboxIndex.pack(jukeboxLoc));
         
         // Stop sound for all players who were hearing it
-        for (UUID uuid : activeJukebox.playersHearing) {
-            Player player = Bukkit.getPlayer(uuid);
-            if (player != null) {
-                player.stopSound(activeJukebox.customSound);
+        for (Player player : activeJukebox.playersHearing) {
+            Set<ActiveJukebox> hearing = hearingByPlayer.get(player.getUniqueId());
+            if (hearing != null) {
+                hearing.remove(activeJukebox);
             }
         }
+        sendStopSound(activeJukebox, activeJukebox.playersHearing);
         
-        if (plugin.isDebugMode()) {
-            plugin.debug("Stopped jukebox playback at " + jukeboxLoc);
-        }
+        plugin.trace(DebugTrace.Category.JUKEBOX, () -> "Stopped jukebox playback at " + jukeboxLoc);
     }
     
     /**
@@ -571,15 +1107,13 @@ public class JukeboxListener implements Listener {
                 // Stop playback
                 stopJukeboxPlayback(jukeboxLoc);
                 
-                if (plugin.isDebugMode()) {
-                    plugin.debug("Auto-ejected disc from jukebox at " + jukeboxLoc);
-                }
+                plugin.trace(DebugTrace.Category.JUKEBOX, () -> "Auto-ejected disc from jukebox at " + jukeboxLoc);
             }
         }
     }
     
     /**
-     * Sends replacement status bar message to player
+     * Sends replacement status bar message to player. Runs on the player's region.
      */
     private void sendReplacementMessage(Player player) {
         if (!protocolLibAvailable) return;
@@ -589,18 +1123,8 @@ public class JukeboxListener implements Listener {
         World world = playerLoc.getWorld();
         if (world == null) return;
         
-        Location nearestLoc = null;
-        double nearestDistance = Double.MAX_VALUE;
-        
-        for (Location loc : knownJukeboxes) {
-            if (!loc.getWorld().equals(world)) continue;
-            
-            double distance = playerLoc.distance(loc);
-            if (distance <= soundRange && distance < nearestDistance) {
-                nearestLoc = loc;
-                nearestDistance = distance;
-            }
-        }
+        // Only visits the chunks within sound range
+        Location nearestLoc = knownJukeboxes.nearest(world, playerLoc.getX(), playerLoc.getY(), playerLoc.getZ(), soundRange);
         
         // If found, schedule message sending on that region
         if (nearestLoc != null) {
@@ -618,189 +1142,191 @@ public class JukeboxListener implements Listener {
     }
     
     /**
-     * Sends custom message to nearby players
+     * Sends custom message to the players hearing a jukebox
      */
-    private void sendCustomMessageToNearbyPlayers(Jukebox jukebox) {
-        ItemStack record = jukebox.getRecord();
-        if (record == null || record.getType() == Material.AIR) return;
+    private void sendCustomMessageToNearbyPlayers(ActiveJukebox activeJukebox) {
+        if (activeJukebox.nowPlaying == null) return;
         
-        String materialName = record.getType().name();
-        ItemRemapperPlugin.ItemRemap remap = plugin.getItemRemap(materialName);
-        
-        if (remap == null || !remap.hasDisplayName()) return;
-        
-        String customName = remap.getDisplayName();
-        String message = "§7Now playing: " + customName;
-        
-        // Anti-spam check
-        long currentTime = System.currentTimeMillis();
-        Long lastSent = sentCustomMessages.get(customName);
-        if (lastSent != null && (currentTime - lastSent) < MESSAGE_COOLDOWN) {
-            return;
-        }
-        
-        sentCustomMessages.put(customName, currentTime);
-        
-        Location jukeboxLoc = jukebox.getLocation();
-        World world = jukeboxLoc.getWorld();
-        if (world == null) return;
-        
-        TextComponent textComponent = new TextComponent(message);
         int count = 0;
-        
-        for (Player player : world.getPlayers()) {
-            if (player.getLocation().distance(jukeboxLoc) <= soundRange) {
-                player.spigot().sendMessage(ChatMessageType.ACTION_BAR, textComponent);
+        for (Player player : activeJukebox.playersHearing) {
+            if (markMessageSent(activeJukebox, player)) {
+                player.sendActionBar(activeJukebox.nowPlaying);
                 count++;
             }
         }
         
-        if (plugin.isDebugMode()) {
-            plugin.debug("Sent custom message to " + count + " players: " + customName);
-        }
+        int playerCount = count;
+        plugin.trace(DebugTrace.Category.JUKEBOX, () -> "Sent custom message to " + playerCount + " players: " + activeJukebox.discType);
     }
     
     /**
-     * Sends custom message to a specific player
+     * Sends custom message to a specific player, unless the jukebox sent it to
+     * them moments ago
      */
     private void sendCustomMessageToPlayer(Jukebox jukebox, Player player) {
+        Location jukeboxLoc = jukebox.getLocation();
+        ActiveJukebox activeJukebox = activeJukeboxes.get(jukeboxLoc.getWorld(), JukeboxIndex.pack(jukeboxLoc));
+        if (activeJukebox != null) {
+            if (activeJukebox.nowPlaying != null && markMessageSent(activeJukebox, player)) {
+                player.sendActionBar(activeJukebox.nowPlaying);
+            }
+            return;
+        }
+        
+        // Discs without a custom sound are not tracked, their message is sent as is
         ItemStack record = jukebox.getRecord();
         if (record == null || record.getType() == Material.AIR) return;
         
-        String materialName = record.getType().name();
-        ItemRemapperPlugin.ItemRemap remap = plugin.getItemRemap(materialName);
-        
-        if (remap == null || !remap.hasDisplayName()) return;
-        
-        String customName = remap.getDisplayName();
-        String message = "§7Now playing: " + customName;
-        
-        player.spigot().sendMessage(ChatMessageType.ACTION_BAR, new TextComponent(message));
+        ItemRemapperPlugin.ItemRemap remap = plugin.getItemRemap(record);
+        if (remap != null && remap.getNowPlayingComponent() != null) {
+            player.sendActionBar(remap.getNowPlayingComponent());
+        }
     }
     
-
+    /**
+     * Records that a jukebox sends its message to a player. Runs on the jukebox's region.
+     * 
+     * @return false if the message was sent to the player within the cooldown
+     */
+    private boolean markMessageSent(ActiveJukebox activeJukebox, Player player) {
+        long now = expirations.getTick() + 1L; // Never 0, which marks absent entries
+        long key = playerKey(player.getUniqueId());
+        long sentAt = activeJukebox.messagesSent.get(key);
+        if (sentAt != 0L && now - sentAt < MESSAGE_COOLDOWN_TICKS) {
+            return false;
+        }
+        activeJukebox.messagesSent.put(key, now);
+        return true;
+    }
     
     /**
-     * Starts the jukebox scanner
+     * Starts jukebox discovery and the safety-net scanner.
+     * Chunks already loaded are scanned once now, later ones as they load.
+     * State changes arrive through events; the scanner only catches what they miss
+     * (e.g. other plugins editing jukeboxes) and is off when the interval is 0.
      */
     public void startJukeboxScanner() {
-        // Fast scanner for state changes (every 0.5 seconds)
-        // This catches hopper insertions quickly
-        Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, (task) -> this.scanJukeboxes(), 10L, 10L);
+        if (!jukeboxEnabled) return;
+        
+        emptyJukebox = Material.JUKEBOX.createBlockData();
+        filledJukebox = Bukkit.createBlockData(Material.JUKEBOX, "[has_record=true]");
+        Bukkit.getAsyncScheduler().runNow(plugin, (task) -> scanLoadedChunks());
+        
+        if (scanIntervalTicks > 0) {
+            Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, (task) -> this.scanJukeboxes(),
+                    scanIntervalTicks, scanIntervalTicks);
+        }
         
-        if (plugin.isDebugMode()) {
-            plugin.getLogger().info("Jukebox scanner started (checks every 0.5s for hopper insertions)");
+        if (saveIntervalSeconds > 0) {
+            Bukkit.getAsyncScheduler().runAtFixedRate(plugin, (task) -> saveJukeboxes(),
+                    saveIntervalSeconds, saveIntervalSeconds, TimeUnit.SECONDS);
         }
+        
+        plugin.trace(DebugTrace.Category.JUKEBOX, () -> "Jukebox safety scan " + (scanIntervalTicks > 0
+                ? "every " + scanIntervalTicks / 20L + "s" : "disabled"));
     }
     
     /**
-     * Scans for jukebox state changes - detects both insertions and removals
+     * Restores the jukebox index saved on the last shutdown, including which chunks
+     * were already scanned, so discovery skips them. Jukeboxes that were playing are
+     * checked on their region if their chunk is loaded, which resumes their custom sound.
      */
-    private void scanJukeboxes() {
-        // Periodically discover new jukeboxes (every 5 seconds)
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastDiscoveryTime > DISCOVERY_INTERVAL) {
-            Bukkit.getAsyncScheduler().runNow(plugin, (task) -> discoverJukeboxes());
-            lastDiscoveryTime = currentTime;
-        }
-        
-        // Always check known jukeboxes for state changes
-        // Create a copy to avoid concurrent modification
-        Set<Location> locationsToCheck = new HashSet<>(knownJukeboxes);
+    public void restoreJukeboxes() {
+        if (!jukeboxEnabled) return;
         
-        // Group locations by world/region to batch operations
-        Map<World, List<Location>> locationsByWorld = new HashMap<>();
-        for (Location loc : locationsToCheck) {
-            locationsByWorld.computeIfAbsent(loc.getWorld(), k -> new ArrayList<>()).add(loc);
-        }
+        store = new JukeboxStore(plugin.getDataFolder().toPath().resolve("jukeboxes"));
+        long start = System.nanoTime();
+        int restored = 0;
         
-        // Process each world's locations in batched region tasks
-        for (Map.Entry<World, List<Location>> entry : locationsByWorld.entrySet()) {
-            for (Location loc : entry.getValue()) {
-                // Schedule check on the appropriate region
+        for (World world : Bukkit.getWorlds()) {
+            JukeboxStore.WorldState state;
+            try {
+                state = store.load(world);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to load jukeboxes of " + world.getName() + ", rediscovering them: " + e.getMessage());
+                continue;
+            }
+            if (state == null) continue;
+            
+            LongLongMap scanned = scannedChunks.computeIfAbsent(world.getUID(), uid -> new LongLongMap(1024));
+            synchronized (scanned) {
+                for (long chunkKey : state.scannedChunks()) {
+                    scanned.put(chunkKey, 1L);
+                }
+            }
+            
+            for (int i = 0; i < state.positions().length; i++) {
+                long pos = state.positions()[i];
+                knownJukeboxes.add(world, pos);
+                if (state.discs()[i] == null) continue;
+                
+                Location loc = JukeboxIndex.toLocation(world, pos);
                 Bukkit.getRegionScheduler().run(plugin, loc, (task) -> {
-                    Block block = loc.getBlock();
-                    
-                    if (block.getType() != Material.JUKEBOX) {
-                        knownJukeboxes.remove(loc);
-                        stopJukeboxPlayback(loc);
-                        return;
-                    }
-                    
-                    if (block.getState() instanceof Jukebox jukebox) {
-                        ItemStack record = jukebox.getRecord();
-                        ActiveJukebox activeJukebox = activeJukeboxes.get(loc);
-                        
-                        String currentDiscType = null;
-                        if (record != null && record.getType() != Material.AIR) {
-                            currentDiscType = record.getType().name();
-                        }
-                        
-                        // Case 1: Disc was removed
-                        if (currentDiscType == null && activeJukebox != null) {
-                            handleDiscRemoval(loc);
-                            plugin.debug("Scanner detected disc removal at " + loc);
-                        }
-                        // Case 2: New disc was inserted (or different disc)
-                        else if (currentDiscType != null && 
-                                (activeJukebox == null || !currentDiscType.equals(activeJukebox.discType))) {
-                            plugin.debug("Scanner detected disc insertion: " + currentDiscType + " at " + loc);
-                            handleDiscInsertion(jukebox);
-                        }
+                    if (world.isChunkLoaded(loc.getBlockX() >> 4, loc.getBlockZ() >> 4)) {
+                        checkJukebox(loc);
                     }
                 });
             }
+            restored += state.positions().length;
         }
+        
+        int count = restored;
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        plugin.trace(DebugTrace.Category.JUKEBOX, () -> "Restored " + count + " jukeboxes in " + millis + "ms");
     }
     
     /**
-     * Discovers jukeboxes in loaded chunks near players
-     * Called from async scheduler to avoid blocking
+     * Saves the jukebox index, the discs playing in it and the scanned chunks,
+     * one file per world
      */
-    private void discoverJukeboxes() {
+    public synchronized void saveJukeboxes() {
+        if (store == null) return;
+        
+        // World UID -> packed position -> playing disc
+        Map<UUID, Map<Long, Material>> playing = new HashMap<>();
+        activeJukeboxes.forEach(activeJukebox -> {
+            Location loc = activeJukebox.location;
+            playing.computeIfAbsent(loc.getWorld().getUID(), uid -> new HashMap<>())
+                    .put(JukeboxIndex.pack(loc), activeJukebox.discType);
+        });
+        
         for (World world : Bukkit.getWorlds()) {
-            // Only scan worlds with players (thread-safe snapshot)
-            if (world.getPlayers().isEmpty()) continue;
-            
-            // Get loaded chunks snapshot (thread-safe)
-            org.bukkit.Chunk[] chunks = world.getLoadedChunks();
-            
-            // Collect chunk locations to scan
-            List<Location> chunkLocations = new ArrayList<>();
-            for (org.bukkit.Chunk chunk : chunks) {
-                // Only scan chunks near players (within 8 chunks)
-                if (!hasPlayersNearChunk(chunk, 8)) continue;
-                
-                // Store chunk center location for scheduling
-                chunkLocations.add(chunk.getBlock(8, 64, 8).getLocation());
+            try {
+                store.save(world, knownJukeboxes.positions(world), playing.getOrDefault(world.getUID(), Map.of()),
+                        scannedChunks(world));
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to save jukeboxes of " + world.getName() + ": " + e.getMessage());
             }
-            
-            // Schedule chunk scans on the appropriate regions
-            for (Location chunkLoc : chunkLocations) {
-                Bukkit.getRegionScheduler().run(plugin, chunkLoc, (task) -> {
-                    // Re-get chunk on the correct thread to avoid cross-thread access
-                    World taskWorld = chunkLoc.getWorld();
-                    if (taskWorld == null) return;
-                    
-                    // Safely get the chunk on the region thread
-                    int chunkX = chunkLoc.getBlockX() >> 4;
-                    int chunkZ = chunkLoc.getBlockZ() >> 4;
-                    
-                    if (!taskWorld.isChunkLoaded(chunkX, chunkZ)) return;
-                    
-                    org.bukkit.Chunk regionChunk = taskWorld.getChunkAt(chunkX, chunkZ);
-                    
-                    // Access tile entities on the correct region thread
-                    for (org.bukkit.block.BlockState state : regionChunk.getTileEntities()) {
-                        if (state instanceof Jukebox) {
-                            Location loc = state.getLocation();
-                            if (!knownJukeboxes.contains(loc)) {
-                                knownJukeboxes.add(loc);
-                                if (plugin.isDebugMode()) {
-                                    plugin.debug("Discovered jukebox at " + loc);
-                                }
-                            }
-                        }
+        }
+    }
+    
+    /**
+     * Checks all known jukeboxes for state changes the events missed
+     */
+    private void scanJukeboxes() {
+        long start = plugin.getMetrics().start();
+        
+        // Schedule each check on the jukebox's region
+        knownJukeboxes.forEach(Bukkit.getWorlds(), (world, pos) -> {
+            Location loc = JukeboxIndex.toLocation(world, pos);
+            Bukkit.getRegionScheduler().run(plugin, loc, (task) -> checkJukebox(loc));
+        });
+        
+        // Covers the pass that hands out checks, the checks themselves run on their regions
+        plugin.getMetrics().stop(PluginMetrics.Timer.JUKEBOX_SCAN, start);
+    }
+    
+    /**
+     * Scans the chunks loaded before the plugin was enabled, each on its region
+     */
+    private void scanLoadedChunks() {
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                int chunkX = chunk.getX();
+                int chunkZ = chunk.getZ();
+                Bukkit.getRegionScheduler().run(plugin, world, chunkX, chunkZ, (task) -> {
+                    if (world.isChunkLoaded(chunkX, chunkZ)) {
+                        scanChunk(world.getChunkAt(chunkX, chunkZ));
                     }
                 });
             }
@@ -808,42 +1334,139 @@ public class JukeboxListener implements Listener {
     }
     
     /**
-     * Checks if any players are near a chunk
+     * Discovers jukeboxes in chunks loaded for the first time, and checks the
+     * known jukeboxes of chunks loaded again
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (!jukeboxEnabled) return;
+        
+        Chunk chunk = event.getChunk();
+        if (event.isNewChunk()) {
+            // Freshly generated terrain holds no jukeboxes
+            markScanned(chunk.getWorld(), chunk.getX(), chunk.getZ());
+        } else if (!scanChunk(chunk) && knownJukeboxes.containsChunk(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            World world = chunk.getWorld();
+            int chunkX = chunk.getX();
+            int chunkZ = chunk.getZ();
+            // Jukeboxes are read once the chunk is fully loaded
+            Bukkit.getRegionScheduler().run(plugin, world, chunkX, chunkZ, (task) ->
+                    knownJukeboxes.forEachInChunk(world, chunkX, chunkZ, pos -> checkJukebox(JukeboxIndex.toLocation(world, pos))));
+        }
+    }
+    
+    /**
+     * Stops playback of jukeboxes in unloading chunks; they are checked again when
+     * their chunk loads
      */
-    private boolean hasPlayersNearChunk(org.bukkit.Chunk chunk, int chunkRadius) {
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        if (!jukeboxEnabled) return;
+        
+        Chunk chunk = event.getChunk();
+        activeJukeboxes.forEachInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ(),
+                activeJukebox -> stopJukeboxPlayback(activeJukebox.location));
+    }
+    
+    /**
+     * Scans a chunk for jukeboxes unless it was scanned before. Runs on the chunk's
+     * region, which only takes a snapshot; the blocks are searched off the region.
+     * 
+     * @return true if the chunk is scanned now
+     */
+    private boolean scanChunk(Chunk chunk) {
         World world = chunk.getWorld();
-        int chunkX = chunk.getX();
-        int chunkZ = chunk.getZ();
+        if (!markScanned(world, chunk.getX(), chunk.getZ())) return false;
         
-        for (Player player : world.getPlayers()) {
-            int playerChunkX = player.getLocation().getBlockX() >> 4;
-            int playerChunkZ = player.getLocation().getBlockZ() >> 4;
+        ChunkSnapshot snapshot = chunk.getChunkSnapshot(false, false, false);
+        Bukkit.getAsyncScheduler().runNow(plugin, (task) -> scanSnapshot(world, snapshot));
+        return true;
+    }
+    
+    /**
+     * Adds the jukeboxes of a chunk snapshot to the index and checks those holding
+     * a disc. The palettes rule out nearly every chunk without visiting a block.
+     */
+    private void scanSnapshot(World world, ChunkSnapshot snapshot) {
+        long start = plugin.getMetrics().start();
+        if (snapshot.contains(emptyJukebox) || snapshot.contains(filledJukebox)) {
+            int minHeight = world.getMinHeight();
+            int sections = (world.getMaxHeight() - minHeight) >> 4;
+            int baseX = snapshot.getX() << 4;
+            int baseZ = snapshot.getZ() << 4;
             
-            if (Math.abs(playerChunkX - chunkX) <= chunkRadius && 
-                Math.abs(playerChunkZ - chunkZ) <= chunkRadius) {
-                return true;
+            for (int section = 0; section < sections; section++) {
+                if (snapshot.isSectionEmpty(section)) continue;
+                
+                int baseY = minHeight + (section << 4);
+                for (int y = baseY; y < baseY + 16; y++) {
+                    for (int x = 0; x < 16; x++) {
+                        for (int z = 0; z < 16; z++) {
+                            if (snapshot.getBlockType(x, y, z) != Material.JUKEBOX) continue;
+                            
+                            Location loc = new Location(world, baseX + x, y, baseZ + z);
+                            if (knownJukeboxes.add(loc)) {
+                                plugin.trace(DebugTrace.Category.JUKEBOX, () -> "Discovered jukebox at " + loc);
+                            }
+                            if (snapshot.getBlockData(x, y, z) instanceof org.bukkit.block.data.type.Jukebox data && data.hasRecord()) {
+                                Bukkit.getRegionScheduler().run(plugin, loc, (task) -> checkJukebox(loc));
+                            }
+                        }
+                    }
+                }
             }
         }
-        return false;
+        plugin.getMetrics().stop(PluginMetrics.Timer.JUKEBOX_DISCOVERY, start);
     }
     
     /**
-     * Starts cleanup task
+     * Copies the keys of a world's scanned chunks
      */
-    public void startCacheCleanupTask() {
-        Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, (task) -> {
-            long currentTime = System.currentTimeMillis();
-            
-            // Clean up old message timestamps
-            sentCustomMessages.entrySet().removeIf(entry -> 
-                (currentTime - entry.getValue()) > MESSAGE_COOLDOWN * 2
-            );
-            
-            // Clean up old jukebox position timestamps
-            pendingJukeboxSounds.entrySet().removeIf(entry ->
-                (currentTime - entry.getValue()) > JUKEBOX_SOUND_WINDOW * 2
-            );
-        }, 100L, 100L);
+    private long[] scannedChunks(World world) {
+        LongLongMap scanned = scannedChunks.get(world.getUID());
+        if (scanned == null) return new long[0];
+        synchronized (scanned) {
+            return scanned.keys();
+        }
+    }
+    
+    /**
+     * Sets the scanned flag of a chunk
+     * 
+     * @return true if the chunk was not scanned before
+     */
+    private boolean markScanned(World world, int chunkX, int chunkZ) {
+        LongLongMap scanned = scannedChunks.computeIfAbsent(world.getUID(), uid -> new LongLongMap(1024));
+        long key = JukeboxIndex.chunkKey(chunkX, chunkZ);
+        synchronized (scanned) {
+            if (scanned.get(key) != 0L) return false;
+            scanned.put(key, 1L);
+            return true;
+        }
+    }
+    
+    /**
+     * Starts ticking the expiration wheel
+     */
+    public void startExpiryTimer() {
+        Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, (task) -> expirations.advance(), 1L, 1L);
+    }
+    
+    /**
+     * Handles an expired entry. Sound and message windows only end; auto-ejection
+     * is handed to the jukebox's region.
+     */
+    private void onExpired(int kind, long key, Object payload) {
+        if (kind != AUTO_EJECT) return;
+        
+        Location jukeboxLoc = (Location) payload;
+        Bukkit.getRegionScheduler().run(plugin, jukeboxLoc, (task) -> {
+            // The disc may have been swapped since the ejection was due
+            ActiveJukebox activeJukebox = activeJukeboxes.get(jukeboxLoc.getWorld(), JukeboxIndex.pack(jukeboxLoc));
+            if (activeJukebox != null && activeJukebox.id == key) {
+                ejectDisc(jukeboxLoc);
+            }
+        });
     }
 
     /**
@@ -854,13 +1477,13 @@ public class JukeboxListener implements Listener {
             protocolManager.removePacketListeners(plugin);
         }
         
-        // Stop all active jukeboxes
-        for (Location loc : new HashSet<>(activeJukeboxes.keySet())) {
-            stopJukeboxPlayback(loc);
-        }
+        // The shards belong to their regions: only stop the sounds, then drop all state at once
+        activeJukeboxes.forEach(activeJukebox -> sendStopSound(activeJukebox, activeJukebox.playersHearing));
         
         activeJukeboxes.clear();
-        sentCustomMessages.clear();
+        hearingByPlayer.clear();
+        expirations.clear();
         knownJukeboxes.clear();
+        scannedChunks.clear();
     }
 }
@@ -0,0 +1,158 @@
+package com.itemremapper;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves the jukebox index to one binary file per world, so a restart can restore
+ * known and playing jukeboxes, and skip discovery in chunks already scanned.
+ * <p>
+ * Layout: magic, version, a table of disc material names, then the entries as a
+ * packed block position and an index into the disc table (-1 for no disc), then
+ * the packed keys of the scanned chunks.
+ * Files are read through a memory-mapped channel and written to a temporary
+ * sibling that atomically replaces the original.
+ */
+public class JukeboxStore {
+
+    private static final int MAGIC = 0x4A554B45; // "JUKE"
+    private static final short VERSION = 2;
+    private static final short NO_DISC = -1;
+
+    private final Path directory;
+
+    /**
+     * Stored jukeboxes of one world
+     *
+     * @param positions Packed block positions
+     * @param discs The disc playing at each position, null if none was playing
+     * @param scannedChunks Packed keys of the chunks whose jukeboxes were discovered
+     */
+    public record WorldState(long[] positions, Material[] discs, long[] scannedChunks) {
+    }
+
+    /**
+     * @param directory The folder holding the world files
+     */
+    public JukeboxStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Loads the stored jukeboxes of a world
+     *
+     * @return The stored state, or null if the world has no file
+     * @throws IOException If the file cannot be read or is corrupt
+     */
+    public WorldState load(World world) throws IOException {
+        Path file = fileOf(world);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a jukebox index: " + file);
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported jukebox index version " + version + ": " + file);
+            }
+
+            // Discs removed from the game since the save read as no disc
+            Material[] discTable = new Material[buffer.getShort()];
+            for (int i = 0; i < discTable.length; i++) {
+                byte[] name = new byte[buffer.getShort()];
+                buffer.get(name);
+                discTable[i] = Material.getMaterial(new String(name, StandardCharsets.UTF_8));
+            }
+
+            int count = buffer.getInt();
+            long[] positions = new long[count];
+            Material[] discs = new Material[count];
+            for (int i = 0; i < count; i++) {
+                positions[i] = buffer.getLong();
+                short disc = buffer.getShort();
+                discs[i] = disc >= 0 && disc < discTable.length ? discTable[disc] : null;
+            }
+
+            long[] scannedChunks = new long[buffer.getInt()];
+            for (int i = 0; i < scannedChunks.length; i++) {
+                scannedChunks[i] = buffer.getLong();
+            }
+            return new WorldState(positions, discs, scannedChunks);
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IOException("Truncated jukebox index: " + file, e);
+        }
+    }
+
+    /**
+     * Saves the jukeboxes of a world, or deletes its file if it has neither
+     * jukeboxes nor scanned chunks
+     *
+     * @param positions Packed block positions of all known jukeboxes
+     * @param playing The disc playing at each position that has one
+     * @param scannedChunks Packed keys of the chunks whose jukeboxes were discovered
+     * @throws IOException If the file cannot be written; the previous file is then kept
+     */
+    public void save(World world, long[] positions, Map<Long, Material> playing, long[] scannedChunks) throws IOException {
+        Path file = fileOf(world);
+        if (positions.length == 0 && scannedChunks.length == 0) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        Files.createDirectories(directory);
+
+        List<Material> discTable = new ArrayList<>();
+        Map<Material, Short> discIndex = new HashMap<>();
+        for (Material disc : playing.values()) {
+            discIndex.computeIfAbsent(disc, key -> {
+                discTable.add(key);
+                return (short) (discTable.size() - 1);
+            });
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(discTable.size());
+            for (Material disc : discTable) {
+                byte[] name = disc.name().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(name.length);
+                out.write(name);
+            }
+            out.writeInt(positions.length);
+            for (long pos : positions) {
+                Material disc = playing.get(pos);
+                out.writeLong(pos);
+                out.writeShort(disc != null ? discIndex.get(disc) : NO_DISC);
+            }
+            out.writeInt(scannedChunks.length);
+            for (long chunkKey : scannedChunks) {
+                out.writeLong(chunkKey);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path fileOf(World world) {
+        return directory.resolve(world.getUID() + ".bin");
+    }
+}
@@ -0,0 +1,154 @@
+package com.itemremapper;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from long to long without boxing. Values must not be 0,
+ * which marks an empty slot; lookups of absent keys return 0.
+ * Not thread-safe.
+ */
+public class LongLongMap {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    public LongLongMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Gets the value of a key
+     *
+     * @return The value, or 0 if the key is absent
+     */
+    public long get(long key) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            if (values[slot] == 0L) {
+                return 0L;
+            }
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+    }
+
+    /**
+     * Sets the value of a key
+     *
+     * @param value The value, must not be 0
+     */
+    public void put(long key, long value) {
+        if (value == 0L) {
+            throw new IllegalArgumentException("0 marks an empty slot");
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            if (values[slot] == 0L) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size > keys.length * LOAD_FACTOR) {
+                    rehash(keys.length << 1);
+                }
+                return;
+            }
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes a key
+     *
+     * @return The removed value, or 0 if the key was absent
+     */
+    public long remove(long key) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            if (values[slot] == 0L) {
+                return 0L;
+            }
+            if (keys[slot] == key) {
+                long value = values[slot];
+                shiftBack(slot);
+                size--;
+                return value;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0L);
+        size = 0;
+    }
+
+    /**
+     * Copies the keys, in no particular order
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != 0L) {
+                result[count++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Closes the gap left by a removed entry by moving later entries of its
+     * probe chain back, so lookups never need tombstones
+     */
+    private void shiftBack(int gap) {
+        for (int slot = (gap + 1) & mask; values[slot] != 0L; slot = (slot + 1) & mask) {
+            int home = slot(keys[slot]);
+            // Move the entry if the gap lies on its probe path from home to its slot
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        values[gap] = 0L;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0L) {
+                int slot = slot(oldKeys[i]);
+                while (values[slot] != 0L) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package com.itemremapper;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.ProtocolManager;
+import com.comphenix.protocol.events.ListenerPriority;
+import com.comphenix.protocol.events.PacketAdapter;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.events.PacketEvent;
+import com.comphenix.protocol.reflect.StructureModifier;
+import com.comphenix.protocol.utility.MinecraftReflection;
+import com.comphenix.protocol.wrappers.BukkitConverters;
+import com.comphenix.protocol.wrappers.WrappedDataValue;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerLocaleChangeEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Virtual remap mode: rewrites item names and lore in outgoing item packets
+ * instead of changing the server-side ItemStacks.
+ * Stored items never get a marker or a name, so config changes apply on the next
+ * packet. Wire copies carry a "virtual" marker so that creative clients sending
+ * them back can be stripped of the plugin's text before the server stores them.
+ * Remaps with per-locale renderings are resolved against each receiving player's
+ * client locale.
+ */
+public class PacketItemRemapper implements Listener {
+
+    private final ItemRemapperPlugin plugin;
+    private final NamespacedKey remappedKey;
+    private final NamespacedKey virtualKey;
+    private ProtocolManager protocolManager;
+
+    // Rewritten copies of plain (meta-less) stacks, one per remap, valid for one remap table.
+    // Localized remaps are separate instances per material, so this is per (material, locale).
+    private final Map<ItemRemapperPlugin.ItemRemap, ItemStack> plainStackCache = new ConcurrentHashMap<>();
+    private volatile RemapTable cachedTable;
+
+    // Remaps written into wire copies, by stamp, so stripping only removes the text they added
+    private final Map<Integer, ItemRemapperPlugin.ItemRemap> writtenRemaps = new ConcurrentHashMap<>();
+
+    // Rewritten ENTITY_METADATA packets keyed by the original packet handle, then by locale. The server
+    // broadcasts one metadata packet instance to every viewer (dropped items, item frames), so it is
+    // rewritten once per locale. Inventory packets are built per player and are never shared.
+    private final Cache<Object, Map<String, Object>> rewrittenPackets = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(1024)
+            .build();
+
+    public PacketItemRemapper(ItemRemapperPlugin plugin) {
+        this.plugin = plugin;
+        this.remappedKey = plugin.getRemappedKey();
+        this.virtualKey = new NamespacedKey(plugin, "virtual");
+    }
+
+    /**
+     * Registers the packet listeners with ProtocolLib
+     *
+     * @return true if ProtocolLib is available and the listeners were registered
+     */
+    public boolean register() {
+        try {
+            if (plugin.getServer().getPluginManager().getPlugin("ProtocolLib") == null) {
+                return false;
+            }
+            protocolManager = ProtocolLibrary.getProtocolManager();
+
+            // Outgoing item packets - rewrite names and lore for the client
+            protocolManager.addPacketListener(new PacketAdapter(
+                plugin,
+                ListenerPriority.HIGH,
+                PacketType.Play.Server.WINDOW_ITEMS,
+                PacketType.Play.Server.SET_SLOT,
+                PacketType.Play.Server.ENTITY_METADATA
+            ) {
+                @Override
+                public void onPacketSending(PacketEvent event) {
+                    handleOutgoing(event);
+                }
+            });
+
+            // Incoming item packets - strip virtual names before the server sees them
+            protocolManager.addPacketListener(new PacketAdapter(
+                plugin,
+                ListenerPriority.LOWEST,
+                PacketType.Play.Client.SET_CREATIVE_SLOT,
+                PacketType.Play.Client.WINDOW_CLICK
+            ) {
+                @Override
+                public void onPacketReceiving(PacketEvent event) {
+                    handleIncoming(event);
+                }
+            });
+
+            plugin.getLogger().info("Virtual remap mode enabled - item names are rewritten in packets only");
+            return true;
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to setup virtual remap mode: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Unregisters the packet listeners
+     */
+    public void cleanup() {
+        if (protocolManager != null) {
+            protocolManager.removePacketListeners(plugin);
+        }
+        plainStackCache.clear();
+        writtenRemaps.clear();
+        rewrittenPackets.invalidateAll();
+    }
+
+    /**
+     * Rewrites outgoing WINDOW_ITEMS, SET_SLOT and ENTITY_METADATA packets
+     */
+    private void handleOutgoing(PacketEvent event) {
+        PluginMetrics metrics = plugin.getMetrics();
+        long start = metrics.start();
+        try {
+            PacketContainer packet = event.getPacket();
+            String locale = localeOf(event.getPlayer());
+            if (event.getPacketType() != PacketType.Play.Server.ENTITY_METADATA) {
+                PacketContainer rewritten = rewritePacket(packet, locale);
+                if (rewritten != null) {
+                    event.setPacket(rewritten);
+                }
+                return;
+            }
+
+            Object original = packet.getHandle();
+            Map<String, Object> byLocale = rewrittenPackets.asMap()
+                    .computeIfAbsent(original, handle -> new ConcurrentHashMap<>(2));
+            Object cached = byLocale.get(locale);
+            if (cached != null) {
+                metrics.increment(PluginMetrics.Counter.PACKET_CACHE_HIT);
+                if (cached != original) {
+                    event.setPacket(new PacketContainer(event.getPacketType(), cached));
+                }
+                return;
+            }
+
+            metrics.increment(PluginMetrics.Counter.PACKET_CACHE_MISS);
+            PacketContainer rewritten = rewritePacket(packet, locale);
+            Object result = rewritten != null ? rewritten.getHandle() : original;
+            byLocale.put(locale, result);
+            if (rewritten != null) {
+                event.setPacket(rewritten);
+            }
+        } catch (Exception e) {
+            plugin.trace(DebugTrace.Category.PACKET, () -> "Error in item packet handler: " + e.getMessage());
+        } finally {
+            metrics.stop(PluginMetrics.Timer.ITEM_PACKET, start);
+        }
+    }
+
+    /**
+     * Gets the locale key packets are rendered for. All players share one key
+     * while no remap has per-locale renderings.
+     */
+    private String localeOf(Player player) {
+        if (player == null || !plugin.getRemapTable().hasLocales()) {
+            return "";
+        }
+        try {
+            String locale = player.getLocale();
+            return locale != null ? locale.toLowerCase(Locale.ROOT) : "";
+        } catch (UnsupportedOperationException e) {
+            return ""; // Temporary player during login
+        }
+    }
+
+    /**
+     * Resends inventories when a client switches language, so items show the new locale
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLocaleChange(PlayerLocaleChangeEvent event) {
+        if (!plugin.getRemapTable().hasLocales()) {
+            return;
+        }
+        // The new locale is applied after the event, resend on the next tick
+        Player player = event.getPlayer();
+        player.getScheduler().runDelayed(plugin, (task) -> player.updateInventory(), null, 1L);
+    }
+
+    /**
+     * Builds a rewritten copy of an item packet
+     *
+     * @return The rewritten packet, or null if no item in it needs a remap
+     */
+    private PacketContainer rewritePacket(PacketContainer packet, String locale) {
+        PacketType type = packet.getType();
+
+        if (type == PacketType.Play.Server.SET_SLOT) {
+            ItemStack rewritten = rewriteStack(packet.getItemModifier().read(0), locale);
+            if (rewritten == null) {
+                return null;
+            }
+            PacketContainer copy = packet.shallowClone();
+            copy.getItemModifier().write(0, rewritten);
+            return copy;
+        }
+
+        if (type == PacketType.Play.Server.WINDOW_ITEMS) {
+            List<ItemStack> items = packet.getItemListModifier().read(0);
+            List<ItemStack> newItems = null;
+            for (int i = 0; i < items.size(); i++) {
+                ItemStack rewritten = rewriteStack(items.get(i), locale);
+                if (rewritten != null) {
+                    if (newItems == null) {
+                        newItems = new ArrayList<>(items);
+                    }
+                    newItems.set(i, rewritten);
+                }
+            }
+            ItemStack carried = rewriteStack(packet.getItemModifier().read(0), locale);
+            if (newItems == null && carried == null) {
+                return null;
+            }
+            PacketContainer copy = packet.shallowClone();
+            if (newItems != null) {
+                copy.getItemListModifier().write(0, newItems);
+            }
+            if (carried != null) {
+                copy.getItemModifier().write(0, carried);
+            }
+            return copy;
+        }
+
+        if (type == PacketType.Play.Server.ENTITY_METADATA) {
+            List<WrappedDataValue> values = packet.getDataValueCollectionModifier().read(0);
+            List<WrappedDataValue> newValues = null;
+            for (int i = 0; i < values.size(); i++) {
+                WrappedDataValue value = values.get(i);
+                Object raw = value.getRawValue();
+                if (!MinecraftReflection.getItemStackClass().isInstance(raw)) {
+                    continue;
+                }
+                ItemStack rewritten = rewriteStack(BukkitConverters.getItemStackConverter().getSpecific(raw), locale);
+                if (rewritten != null) {
+                    if (newValues == null) {
+                        newValues = new ArrayList<>(values);
+                    }
+                    newValues.set(i, new WrappedDataValue(value.getIndex(), value.getSerializer(),
+                            BukkitConverters.getItemStackConverter().getGeneric(rewritten)));
+                }
+            }
+            if (newValues == null) {
+                return null;
+            }
+            PacketContainer copy = packet.shallowClone();
+            copy.getDataValueCollectionModifier().write(0, newValues);
+            return copy;
+        }
+
+        return null;
+    }
+
+    /**
+     * Builds the client-side copy of a stack with the remapped name and lore
+     *
+     * @param item The server-side stack, not modified
+     * @param locale The receiving client's locale key
+     * @return The rewritten copy, or null if the stack is sent unchanged
+     */
+    private ItemStack rewriteStack(ItemStack item, String locale) {
+        if (item == null) {
+            return null;
+        }
+
+        Material material = item.getType();
+        ItemRemapperPlugin.ItemRemap remap = plugin.getItemRemap(item);
+        if (remap == null) {
+            return null;
+        }
+        remap = remap.forLocale(locale);
+
+        // Plain stacks share one cached rewritten copy per remap
+        if (!item.hasItemMeta()) {
+            ItemStack prototype = getPlainPrototype(material, remap);
+            if (prototype == null) {
+                return null;
+            }
+            ItemStack copy = prototype.clone();
+            copy.setAmount(item.getAmount());
+            return copy;
+        }
+
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) {
+            return null;
+        }
+
+        // Leave player-renamed items alone; stored-mode markers and virtual markers
+        // kept by stripVirtual count as plugin-owned
+        PersistentDataContainer dataContainer = meta.getPersistentDataContainer();
+        boolean isPluginRemapped = dataContainer.has(remappedKey, PersistentDataType.INTEGER)
+                || dataContainer.has(remappedKey, PersistentDataType.BYTE)
+                || dataContainer.has(virtualKey, PersistentDataType.INTEGER);
+        if ((meta.hasDisplayName() || meta.hasLore()) && !isPluginRemapped) {
+            return null;
+        }
+
+        ItemStack copy = item.clone();
+        applyRemap(meta, remap);
+        copy.setItemMeta(meta);
+        return copy;
+    }
+
+    /**
+     * Gets the cached rewritten copy of a plain stack of the given material
+     */
+    private ItemStack getPlainPrototype(Material material, ItemRemapperPlugin.ItemRemap remap) {
+        RemapTable table = plugin.getRemapTable();
+        if (cachedTable != table) {
+            // Config was reloaded - old prototypes belong to the previous remaps
+            plainStackCache.clear();
+            cachedTable = table;
+        }
+
+        return plainStackCache.computeIfAbsent(remap, r -> {
+            ItemStack prototype = new ItemStack(material);
+            ItemMeta meta = prototype.getItemMeta();
+            if (meta == null) {
+                return null;
+            }
+            applyRemap(meta, r);
+            prototype.setItemMeta(meta);
+            return prototype;
+        });
+    }
+
+    /**
+     * Writes the remapped name, lore and the virtual marker into a meta
+     */
+    private void applyRemap(ItemMeta meta, ItemRemapperPlugin.ItemRemap remap) {
+        meta.displayName(remap.getDisplayNameComponent());
+        meta.lore(remap.getLoreComponents());
+        meta.getPersistentDataContainer().set(virtualKey, PersistentDataType.INTEGER, remap.getStamp());
+        writtenRemaps.putIfAbsent(remap.getStamp(), remap);
+    }
+
+    /**
+     * Strips virtual names from items that clients send back to the server.
+     * Creative clients send full stacks, click packets carry the client's cursor
+     * and its view of the changed slots.
+     */
+    private void handleIncoming(PacketEvent event) {
+        try {
+            PacketContainer packet = event.getPacket();
+            String locale = localeOf(event.getPlayer());
+            ItemStack item = packet.getItemModifier().read(0);
+            if (stripVirtual(item, locale)) {
+                packet.getItemModifier().write(0, item);
+            }
+            if (event.getPacketType() == PacketType.Play.Client.WINDOW_CLICK) {
+                stripChangedSlots(packet, locale);
+            }
+        } catch (Exception e) {
+            plugin.trace(DebugTrace.Category.PACKET, () -> "Error stripping virtual item name: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Strips the stacks of a click packet's changed-slots map in place
+     */
+    private void stripChangedSlots(PacketContainer packet, String locale) {
+        StructureModifier<Map<Object, Object>> maps = packet.getModifier().withType(Map.class);
+        Map<Object, Object> changedSlots = maps.size() > 0 ? maps.read(0) : null;
+        if (changedSlots == null) {
+            return;
+        }
+        for (Map.Entry<Object, Object> entry : changedSlots.entrySet()) {
+            Object raw = entry.getValue();
+            if (!MinecraftReflection.getItemStackClass().isInstance(raw)) {
+                continue;
+            }
+            ItemStack item = BukkitConverters.getItemStackConverter().getSpecific(raw);
+            if (stripVirtual(item, locale)) {
+                entry.setValue(BukkitConverters.getItemStackConverter().getGeneric(item));
+            }
+        }
+    }
+
+    /**
+     * Removes the virtual marker and the name and lore it stands for. Text that
+     * differs from what the plugin wrote is the player's and stays. If the remap
+     * behind the marker's stamp cannot be found, the stack keeps its marker, so
+     * its text is still known to be the plugin's.
+     *
+     * @param locale The sending client's locale key
+     * @return true if the stack carried the virtual marker and was modified
+     */
+    private boolean stripVirtual(ItemStack item, String locale) {
+        if (item == null || !item.hasItemMeta()) {
+            return false;
+        }
+        Integer stamp = RemapTable.readStamp(item, virtualKey);
+        if (stamp == null) {
+            return false;
+        }
+
+        ItemRemapperPlugin.ItemRemap written = findWrittenRemap(item, stamp, locale);
+        if (written == null) {
+            plugin.trace(DebugTrace.Category.PACKET, () -> "Keeping virtual marker of " + item.getType() + ": unknown stamp " + stamp);
+            return false;
+        }
+
+        ItemMeta meta = item.getItemMeta();
+        if (sameText(meta.displayName(), written.getDisplayNameComponent())) {
+            meta.displayName(null);
+        }
+        List<Component> lore = meta.lore();
+        List<Component> writtenLore = written.getLoreComponents();
+        if (lore != null && writtenLore != null && lore.size() == writtenLore.size()) {
+            boolean same = true;
+            for (int i = 0; i < lore.size() && same; i++) {
+                same = sameText(lore.get(i), writtenLore.get(i));
+            }
+            if (same) {
+                meta.lore(null);
+            }
+        }
+        meta.getPersistentDataContainer().remove(virtualKey);
+        item.setItemMeta(meta);
+        return true;
+    }
+
+    /**
+     * Finds the remap a virtual stamp was written from: among the remaps written
+     * since enable, else through the current table, for the client's locale or the default
+     *
+     * @return The remap, or null if no known remap has this stamp (e.g. the config changed)
+     */
+    private ItemRemapperPlugin.ItemRemap findWrittenRemap(ItemStack item, int stamp, String locale) {
+        ItemRemapperPlugin.ItemRemap written = writtenRemaps.get(stamp);
+        if (written != null) {
+            return written;
+        }
+        ItemRemapperPlugin.ItemRemap current = plugin.getItemRemap(item);
+        if (current == null) {
+            current = plugin.getItemRemap(item.getType());
+        }
+        if (current == null) {
+            return null;
+        }
+        ItemRemapperPlugin.ItemRemap localized = current.forLocale(locale);
+        if (localized.getStamp() == stamp) {
+            return localized;
+        }
+        return current.getStamp() == stamp ? current : null;
+    }
+
+    /**
+     * Compares text after the client round trip, which may restructure components
+     */
+    private static boolean sameText(Component sent, Component written) {
+        return sent != null && written != null && sent.compact().equals(written.compact());
+    }
+}
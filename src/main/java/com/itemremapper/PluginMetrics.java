@@ -0,0 +1,305 @@
+package com.itemremapper;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low-overhead counters and latency histograms for the plugin's handlers.
+ * All values are striped adders, so region and netty threads never contend on
+ * one cache line. Histograms use power-of-two nanosecond buckets: recording is
+ * a leading-zero count and an add.
+ * Shown by {@code /itemremapper stats} and exported in Prometheus text format.
+ */
+public class PluginMetrics {
+
+    /**
+     * Timed handlers
+     */
+    public enum Timer {
+        PICKUP("pickup"),
+        INVENTORY_CLICK("inventory_click"),
+        INVENTORY_DRAG("inventory_drag"),
+        TRANSFER_FLUSH("transfer_flush"),
+        ITEM_PACKET("item_packet"),
+        NAMED_SOUND_PACKET("named_sound_packet"),
+        WORLD_EVENT_PACKET("world_event_packet"),
+        SYSTEM_CHAT_PACKET("system_chat_packet"),
+        ACTION_BAR_PACKET("action_bar_packet"),
+        JUKEBOX_SCAN("jukebox_scan"),
+        JUKEBOX_DISCOVERY("jukebox_discovery");
+
+        final String label;
+
+        Timer(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Counted outcomes
+     */
+    public enum Counter {
+        REMAP_REMAPPED("itemremapper_remap_total", "outcome", "remapped"),
+        REMAP_NO_RULE("itemremapper_remap_total", "outcome", "no_rule"),
+        REMAP_UP_TO_DATE("itemremapper_remap_total", "outcome", "up_to_date"),
+        REMAP_PLAYER_RENAMED("itemremapper_remap_total", "outcome", "player_renamed"),
+        PACKET_CACHE_HIT("itemremapper_packet_cache_total", "result", "hit"),
+        PACKET_CACHE_MISS("itemremapper_packet_cache_total", "result", "miss");
+
+        final String metric;
+        final String labelName;
+        final String labelValue;
+
+        Counter(String metric, String labelName, String labelValue) {
+            this.metric = metric;
+            this.labelName = labelName;
+            this.labelValue = labelValue;
+        }
+    }
+
+    // Bucket i holds durations below 2^i ns; the last bucket is everything from ~1 s up
+    private static final int BUCKETS = 31;
+
+    /**
+     * Latency histogram of one handler
+     */
+    private static final class Histogram {
+        final LongAdder[] buckets = new LongAdder[BUCKETS];
+        final LongAdder count = new LongAdder();
+        final LongAdder sumNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+        Histogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0L, nanos)));
+            buckets[bucket].increment();
+            count.increment();
+            sumNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        /**
+         * Estimates a quantile as the upper bound of the bucket containing it
+         */
+        long quantileNanos(double quantile) {
+            long total = count.sum();
+            if (total == 0) {
+                return 0L;
+            }
+            long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank) {
+                    return i == BUCKETS - 1 ? maxNanos.get() : 1L << i;
+                }
+            }
+            return maxNanos.get();
+        }
+    }
+
+    private final ItemRemapperPlugin plugin;
+    private final Histogram[] histograms = new Histogram[Timer.values().length];
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    private final long startedAt = System.currentTimeMillis();
+    private volatile boolean enabled = true;
+    private ScheduledTask exportTask;
+
+    public PluginMetrics(ItemRemapperPlugin plugin) {
+        this.plugin = plugin;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Turns recording on or off; values recorded so far are kept
+     *
+     * @param enabled Whether to record
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the start timestamp for a timed section
+     *
+     * @return The current nanoTime, or 0 if metrics are disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records the duration of a timed section
+     *
+     * @param timer The handler
+     * @param start The value returned by {@link #start()}
+     */
+    public void stop(Timer timer, long start) {
+        if (start != 0L) {
+            histograms[timer.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Increments a counter
+     *
+     * @param counter The counter
+     */
+    public void increment(Counter counter) {
+        if (enabled) {
+            counters[counter.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Starts writing the Prometheus text file at a fixed interval
+     *
+     * @param file Target file, written to a temp file and moved into place
+     * @param intervalSeconds Seconds between writes, 0 or less disables the export
+     */
+    public void startExport(Path file, long intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        exportTask = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, (task) -> {
+            try {
+                writePrometheus(file);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to write metrics to " + file + ": " + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic export
+     */
+    public void stopExport() {
+        if (exportTask != null) {
+            exportTask.cancel();
+            exportTask = null;
+        }
+    }
+
+    /**
+     * Resolves the configured export file against the plugin folder
+     *
+     * @param configured The configured path, absolute or relative to the plugin folder
+     * @return The export file
+     */
+    public Path resolveExportFile(String configured) {
+        File file = new File(configured);
+        return (file.isAbsolute() ? file : new File(plugin.getDataFolder(), configured)).toPath();
+    }
+
+    /**
+     * Writes all metrics in Prometheus text exposition format.
+     * The file is replaced atomically so the node exporter never reads a partial file.
+     *
+     * @param file The target file
+     * @throws IOException If writing fails
+     */
+    public void writePrometheus(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("# HELP itemremapper_handler_seconds Handler latency\n");
+            writer.write("# TYPE itemremapper_handler_seconds histogram\n");
+            for (Timer timer : Timer.values()) {
+                Histogram histogram = histograms[timer.ordinal()];
+                long cumulative = 0;
+                for (int i = 0; i < BUCKETS - 1; i++) {
+                    cumulative += histogram.buckets[i].sum();
+                    writer.write("itemremapper_handler_seconds_bucket{handler=\"" + timer.label + "\",le=\""
+                            + seconds(1L << i) + "\"} " + cumulative + "\n");
+                }
+                long count = histogram.count.sum();
+                writer.write("itemremapper_handler_seconds_bucket{handler=\"" + timer.label + "\",le=\"+Inf\"} " + count + "\n");
+                writer.write("itemremapper_handler_seconds_sum{handler=\"" + timer.label + "\"} "
+                        + seconds(histogram.sumNanos.sum()) + "\n");
+                writer.write("itemremapper_handler_seconds_count{handler=\"" + timer.label + "\"} " + count + "\n");
+            }
+
+            String lastMetric = null;
+            for (Counter counter : Counter.values()) {
+                if (!counter.metric.equals(lastMetric)) {
+                    writer.write("# TYPE " + counter.metric + " counter\n");
+                    lastMetric = counter.metric;
+                }
+                writer.write(counter.metric + "{" + counter.labelName + "=\"" + counter.labelValue + "\"} "
+                        + counters[counter.ordinal()].sum() + "\n");
+            }
+
+            writer.write("# TYPE itemremapper_start_time_seconds gauge\n");
+            writer.write("itemremapper_start_time_seconds " + (startedAt / 1000L) + "\n");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Formats the metrics for /itemremapper stats
+     *
+     * @return The lines to send
+     */
+    public List<String> formatSummary() {
+        List<String> lines = new ArrayList<>();
+        long uptimeSeconds = Math.max(1L, (System.currentTimeMillis() - startedAt) / 1000L);
+        lines.add("§6ItemRemapper stats §7(" + uptimeSeconds + "s" + (enabled ? "" : ", recording off") + ")");
+
+        lines.add("§7Remaps: §f" + counters[Counter.REMAP_REMAPPED.ordinal()].sum() + " remapped§7, "
+                + counters[Counter.REMAP_UP_TO_DATE.ordinal()].sum() + " up to date, "
+                + counters[Counter.REMAP_PLAYER_RENAMED.ordinal()].sum() + " player-renamed, "
+                + counters[Counter.REMAP_NO_RULE.ordinal()].sum() + " without rule");
+        long cacheHits = counters[Counter.PACKET_CACHE_HIT.ordinal()].sum();
+        long cacheMisses = counters[Counter.PACKET_CACHE_MISS.ordinal()].sum();
+        if (cacheHits + cacheMisses > 0) {
+            lines.add("§7Packet cache: " + cacheHits + " hits, " + cacheMisses + " misses");
+        }
+
+        lines.add("§7Handler: calls, calls/s, mean / p50 / p99 / max µs");
+        for (Timer timer : Timer.values()) {
+            Histogram histogram = histograms[timer.ordinal()];
+            long count = histogram.count.sum();
+            if (count == 0) {
+                continue;
+            }
+            lines.add(String.format(Locale.ROOT, "§7 %s: §f%d§7, %.1f/s, %.1f / %.1f / %.1f / %.1f",
+                    timer.label, count, (double) count / uptimeSeconds,
+                    histogram.sumNanos.sum() / 1000.0 / count,
+                    histogram.quantileNanos(0.5) / 1000.0,
+                    histogram.quantileNanos(0.99) / 1000.0,
+                    histogram.maxNanos.get() / 1000.0));
+        }
+        return lines;
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,511 @@
+package com.itemremapper;
+
+import io.papermc.paper.persistence.PersistentDataContainerView;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Immutable lookup table compiled from the item-remaps config section.
+ * Rules are indexed by Material ordinal, so a lookup is a single array read
+ * and a miss is a null check. Materials with variants resolve them through a
+ * precomputed decision table instead of evaluating the variants in order.
+ *
+ * <p>Rule keys are material names or item tags ({@code "#minecraft:swords"}).
+ * Material entries take precedence over tag entries. An entry may list
+ * {@code variants}, each matching on {@code custom-model-data} and/or
+ * {@code enchanted}; the first matching variant in config order wins, and
+ * items matching none of them get the entry's own name and lore.</p>
+ *
+ * <p>Entries and variants may list {@code locales} with per-locale name and lore.
+ * These are resolved per client in virtual mode only.</p>
+ */
+public final class RemapTable {
+
+    /**
+     * Custom model data value used for items without one
+     */
+    public static final int NO_CUSTOM_MODEL_DATA = Integer.MIN_VALUE;
+
+    /**
+     * Table without any remaps, used before the first config load
+     */
+    public static final RemapTable EMPTY = new RemapTable(new Rule[Material.values().length], 0, false);
+
+    private final Rule[] byOrdinal;
+    private final int size;
+    private final boolean hasLocales;
+
+    /**
+     * Compiled rule for one material.
+     * Selection is two lookups: custom model data picks a row, enchantment picks the column.
+     */
+    private static final class Rule {
+        final ItemRemapperPlugin.ItemRemap base;
+        final ItemRemapperPlugin.ItemRemap[] otherCustomModelData; // [not enchanted, enchanted]
+        final Map<Integer, ItemRemapperPlugin.ItemRemap[]> byCustomModelData;
+        final boolean usesEnchanted;
+        final int signature; // Changes whenever any selectable remap changes
+
+        Rule(ItemRemapperPlugin.ItemRemap base, ItemRemapperPlugin.ItemRemap[] otherCustomModelData,
+             Map<Integer, ItemRemapperPlugin.ItemRemap[]> byCustomModelData, boolean usesEnchanted) {
+            this.base = base;
+            this.otherCustomModelData = otherCustomModelData;
+            this.byCustomModelData = byCustomModelData;
+            this.usesEnchanted = usesEnchanted;
+
+            int hash = Arrays.hashCode(stamps(otherCustomModelData));
+            for (Map.Entry<Integer, ItemRemapperPlugin.ItemRemap[]> entry : byCustomModelData.entrySet()) {
+                hash += entry.getKey() ^ Arrays.hashCode(stamps(entry.getValue()));
+            }
+            this.signature = hash;
+        }
+
+        boolean hasVariants() {
+            return usesEnchanted || !byCustomModelData.isEmpty();
+        }
+
+        ItemRemapperPlugin.ItemRemap select(int customModelData, boolean enchanted) {
+            ItemRemapperPlugin.ItemRemap[] row = otherCustomModelData;
+            if (customModelData != NO_CUSTOM_MODEL_DATA && !byCustomModelData.isEmpty()) {
+                row = byCustomModelData.getOrDefault(customModelData, otherCustomModelData);
+            }
+            return row[enchanted ? 1 : 0];
+        }
+
+        private static int[] stamps(ItemRemapperPlugin.ItemRemap[] row) {
+            return new int[] {
+                row[0] != null ? row[0].getStamp() : 0,
+                row[1] != null ? row[1].getStamp() : 0
+            };
+        }
+    }
+
+    /**
+     * A parsed variant: conditions plus the remap it selects
+     */
+    private record Variant(Integer customModelData, Boolean enchanted, ItemRemapperPlugin.ItemRemap remap) {
+        boolean matches(int itemCustomModelData, boolean itemEnchanted) {
+            return (customModelData == null || customModelData == itemCustomModelData)
+                    && (enchanted == null || enchanted == itemEnchanted);
+        }
+    }
+
+    /**
+     * A parsed config entry, before it is expanded to its materials
+     */
+    private record Entry(ItemRemapperPlugin.ItemRemap base, List<Variant> variants) {
+        boolean hasLocales() {
+            return (base != null && base.hasLocales()) || variants.stream().anyMatch(v -> v.remap().hasLocales());
+        }
+    }
+
+    private RemapTable(Rule[] byOrdinal, int size, boolean hasLocales) {
+        this.byOrdinal = byOrdinal;
+        this.size = size;
+        this.hasLocales = hasLocales;
+    }
+
+    /**
+     * Compiles the item-remaps section into a table.
+     * Keys that do not resolve to an item material or item tag are reported and skipped.
+     *
+     * @param remapsSection The item-remaps section, may be null
+     * @param logger Logger used to report invalid keys
+     * @param markerKey Key for the prototype metas' stamp, or null to skip building prototypes
+     * @return The compiled table
+     */
+    public static RemapTable compile(ConfigurationSection remapsSection, Logger logger, NamespacedKey markerKey) {
+        Rule[] byOrdinal = new Rule[Material.values().length];
+        if (remapsSection == null) {
+            return new RemapTable(byOrdinal, 0, false);
+        }
+
+        Entry[] materialEntries = new Entry[byOrdinal.length];
+        Entry[] tagEntries = new Entry[byOrdinal.length];
+        List<String> invalidKeys = new ArrayList<>();
+
+        for (String key : remapsSection.getKeys(false)) {
+            Set<Material> materials = resolveKey(key, logger);
+            if (materials == null) {
+                invalidKeys.add(key);
+                continue;
+            }
+
+            Entry entry = parseEntry(remapsSection, key, logger);
+            if (entry == null) {
+                continue;
+            }
+
+            // Material entries take precedence over tags, the first tag listing a material wins
+            boolean isTag = key.startsWith("#");
+            for (Material material : materials) {
+                int ordinal = material.ordinal();
+                if (!isTag) {
+                    if (materialEntries[ordinal] != null) {
+                        logger.warning("Duplicate remap for " + material.name() + " (key '" + key + "'), later entry wins");
+                    }
+                    materialEntries[ordinal] = entry;
+                } else if (tagEntries[ordinal] == null) {
+                    tagEntries[ordinal] = entry;
+                }
+            }
+        }
+
+        for (String key : invalidKeys) {
+            logger.warning("Ignoring item-remaps entry '" + key + "': not a valid item material or item tag");
+        }
+
+        Material[] materials = Material.values();
+        int size = 0;
+        boolean hasLocales = false;
+        for (int ordinal = 0; ordinal < byOrdinal.length; ordinal++) {
+            Entry entry = materialEntries[ordinal] != null ? materialEntries[ordinal] : tagEntries[ordinal];
+            if (entry != null) {
+                byOrdinal[ordinal] = compileRule(entry, materials[ordinal], markerKey);
+                hasLocales |= entry.hasLocales();
+                size++;
+            }
+        }
+
+        return new RemapTable(byOrdinal, size, hasLocales);
+    }
+
+    /**
+     * Resolves a rule key to the materials it covers
+     *
+     * @return The materials, or null if the key is invalid
+     */
+    private static Set<Material> resolveKey(String key, Logger logger) {
+        if (key.startsWith("#")) {
+            NamespacedKey tagKey = NamespacedKey.fromString(key.substring(1));
+            if (tagKey == null) {
+                return null;
+            }
+            if (Bukkit.getServer() == null) {
+                logger.warning("Skipping item tag rule '" + key + "': tags need a running server");
+                return Set.of();
+            }
+            Tag<Material> tag = Bukkit.getTag(Tag.REGISTRY_ITEMS, tagKey, Material.class);
+            return tag != null ? tag.getValues() : null;
+        }
+
+        Material material = Material.matchMaterial(key);
+        if (material == null || material.isLegacy() || material.isAir() || !material.isItem()) {
+            return null;
+        }
+        return Set.of(material);
+    }
+
+    /**
+     * Parses an entry with its variants
+     *
+     * @return The entry, or null if it has neither name, lore nor variants
+     */
+    private static Entry parseEntry(ConfigurationSection remapsSection, String key, Logger logger) {
+        // Simple format: MATERIAL: "Display Name"
+        if (remapsSection.isString(key)) {
+            return new Entry(new ItemRemapperPlugin.ItemRemap(remapsSection.getString(key), null, null, 0), List.of());
+        }
+
+        // Complex format with name and/or lore
+        ConfigurationSection itemSection = remapsSection.getConfigurationSection(key);
+        if (itemSection == null) {
+            return null;
+        }
+
+        String displayName = itemSection.getString("name");
+        List<String> lore = itemSection.getStringList("lore");
+        String customSound = itemSection.getString("sound");
+        int duration = itemSection.getInt("duration", 0);
+
+        ItemRemapperPlugin.ItemRemap base = null;
+        if (displayName != null || !lore.isEmpty()) {
+            base = new ItemRemapperPlugin.ItemRemap(displayName, List.copyOf(lore), customSound, duration);
+            base.setLocalized(parseLocales(itemSection.get("locales"), base));
+        }
+
+        List<Variant> variants = new ArrayList<>();
+        for (Map<?, ?> variantMap : itemSection.getMapList("variants")) {
+            Variant variant = parseVariant(variantMap, customSound, duration);
+            if (variant == null) {
+                logger.warning("Ignoring variant of '" + key + "': needs a name or lore and a condition "
+                        + "(custom-model-data or enchanted)");
+                continue;
+            }
+            variants.add(variant);
+        }
+
+        // Only add if at least name, lore or a variant is present
+        if (base == null && variants.isEmpty()) {
+            return null;
+        }
+        return new Entry(base, List.copyOf(variants));
+    }
+
+    /**
+     * Parses one variant. Variants inherit sound and duration from their entry.
+     */
+    private static Variant parseVariant(Map<?, ?> map, String customSound, int duration) {
+        Integer customModelData = map.get("custom-model-data") instanceof Number number ? number.intValue() : null;
+        Boolean enchanted = map.get("enchanted") instanceof Boolean flag ? flag : null;
+        String displayName = map.get("name") instanceof String name ? name : null;
+
+        List<String> lore = new ArrayList<>();
+        if (map.get("lore") instanceof List<?> lines) {
+            for (Object line : lines) {
+                lore.add(String.valueOf(line));
+            }
+        }
+
+        if ((customModelData == null && enchanted == null) || (displayName == null && lore.isEmpty())) {
+            return null;
+        }
+        ItemRemapperPlugin.ItemRemap remap = new ItemRemapperPlugin.ItemRemap(displayName, List.copyOf(lore), customSound, duration);
+        remap.setLocalized(parseLocales(map.get("locales"), remap));
+        return new Variant(customModelData, enchanted, remap);
+    }
+
+    /**
+     * Parses a {@code locales} block. Each locale may override name and/or lore;
+     * whatever it leaves out is taken from the owning remap.
+     *
+     * @param locales The block, either a config section or a map from a variant list
+     * @param owner The remap the locales belong to
+     * @return The localized remaps keyed by lowercase locale
+     */
+    private static Map<String, ItemRemapperPlugin.ItemRemap> parseLocales(Object locales, ItemRemapperPlugin.ItemRemap owner) {
+        Map<?, ?> entries;
+        if (locales instanceof ConfigurationSection section) {
+            entries = section.getValues(false);
+        } else if (locales instanceof Map<?, ?> map) {
+            entries = map;
+        } else {
+            return Map.of();
+        }
+
+        Map<String, ItemRemapperPlugin.ItemRemap> localized = new HashMap<>();
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            String locale = String.valueOf(entry.getKey()).toLowerCase(Locale.ROOT).replace('-', '_');
+            String displayName = null;
+            List<String> lore = new ArrayList<>();
+
+            if (entry.getValue() instanceof String name) {
+                displayName = name; // Short format: de_de: "Name"
+            } else if (entry.getValue() instanceof ConfigurationSection section) {
+                displayName = section.getString("name");
+                lore.addAll(section.getStringList("lore"));
+            } else if (entry.getValue() instanceof Map<?, ?> map) {
+                displayName = map.get("name") instanceof String name ? name : null;
+                if (map.get("lore") instanceof List<?> lines) {
+                    lines.forEach(line -> lore.add(String.valueOf(line)));
+                }
+            }
+
+            localized.put(locale, new ItemRemapperPlugin.ItemRemap(
+                    displayName != null ? displayName : owner.getDisplayName(),
+                    !lore.isEmpty() ? List.copyOf(lore) : owner.getLore(),
+                    owner.getCustomSound(), owner.getDuration()));
+        }
+        return localized;
+    }
+
+    /**
+     * Compiles an entry for one material into its decision table.
+     * Every (custom model data, enchanted) cell holds the first variant matching it,
+     * which gives the same result as evaluating the variants in order.
+     */
+    private static Rule compileRule(Entry entry, Material material, NamespacedKey markerKey) {
+        // Each material gets its own remap instances, prototypes are material-specific
+        Map<ItemRemapperPlugin.ItemRemap, ItemRemapperPlugin.ItemRemap> copies = new HashMap<>();
+        ItemRemapperPlugin.ItemRemap base = copyFor(entry.base(), material, markerKey, copies);
+
+        Set<Integer> listedCustomModelData = new LinkedHashSet<>();
+        boolean usesEnchanted = false;
+        for (Variant variant : entry.variants()) {
+            if (variant.customModelData() != null) {
+                listedCustomModelData.add(variant.customModelData());
+            }
+            usesEnchanted |= variant.enchanted() != null;
+        }
+
+        ItemRemapperPlugin.ItemRemap[] other = new ItemRemapperPlugin.ItemRemap[2];
+        for (int enchanted = 0; enchanted < 2; enchanted++) {
+            ItemRemapperPlugin.ItemRemap selected = firstMatch(entry.variants(), NO_CUSTOM_MODEL_DATA, enchanted == 1);
+            other[enchanted] = selected != null ? copyFor(selected, material, markerKey, copies) : base;
+        }
+
+        Map<Integer, ItemRemapperPlugin.ItemRemap[]> byCustomModelData = new HashMap<>();
+        for (int customModelData : listedCustomModelData) {
+            ItemRemapperPlugin.ItemRemap[] row = new ItemRemapperPlugin.ItemRemap[2];
+            for (int enchanted = 0; enchanted < 2; enchanted++) {
+                ItemRemapperPlugin.ItemRemap selected = firstMatch(entry.variants(), customModelData, enchanted == 1);
+                row[enchanted] = selected != null ? copyFor(selected, material, markerKey, copies) : base;
+            }
+            byCustomModelData.put(customModelData, row);
+        }
+
+        return new Rule(base, other, Map.copyOf(byCustomModelData), usesEnchanted);
+    }
+
+    private static ItemRemapperPlugin.ItemRemap firstMatch(List<Variant> variants, int customModelData, boolean enchanted) {
+        for (Variant variant : variants) {
+            if (variant.matches(customModelData, enchanted)) {
+                return variant.remap();
+            }
+        }
+        return null;
+    }
+
+    private static ItemRemapperPlugin.ItemRemap copyFor(ItemRemapperPlugin.ItemRemap remap, Material material,
+                                                        NamespacedKey markerKey,
+                                                        Map<ItemRemapperPlugin.ItemRemap, ItemRemapperPlugin.ItemRemap> copies) {
+        if (remap == null) {
+            return null;
+        }
+        return copies.computeIfAbsent(remap, r -> {
+            ItemRemapperPlugin.ItemRemap copy = new ItemRemapperPlugin.ItemRemap(r);
+            if (markerKey != null) {
+                copy.buildPrototype(material, markerKey);
+            }
+            return copy;
+        });
+    }
+
+    /**
+     * Gets the remap that applies to an item, taking its variants into account.
+     * Only items of materials with variants are inspected beyond their type, and
+     * only custom model data variants need the item's meta.
+     *
+     * @param item The item, may be null
+     * @return The ItemRemap object, or null if no remap applies
+     */
+    public ItemRemapperPlugin.ItemRemap match(ItemStack item) {
+        if (item == null) {
+            return null;
+        }
+        Rule rule = byOrdinal[item.getType().ordinal()];
+        if (rule == null) {
+            return null;
+        }
+        if (!rule.hasVariants() || !item.hasItemMeta()) {
+            return rule.otherCustomModelData[0];
+        }
+
+        boolean enchanted = rule.usesEnchanted && !item.getEnchantments().isEmpty();
+        int customModelData = NO_CUSTOM_MODEL_DATA;
+        if (!rule.byCustomModelData.isEmpty()) {
+            // Read every time: custom model data may have changed since the item was stamped,
+            // and the 1.21.1 API has no way to read it without the meta
+            ItemMeta meta = item.getItemMeta();
+            if (meta != null && meta.hasCustomModelData()) {
+                customModelData = meta.getCustomModelData();
+            }
+        }
+        return rule.select(customModelData, enchanted);
+    }
+
+    /**
+     * Reads an item's stamp marker without cloning its meta. The previous release's
+     * BYTE marker has no stamp and reads as null; asking the container for an
+     * INTEGER would throw on it.
+     *
+     * @param item The item, must have meta
+     * @param key The marker key
+     * @return The stamp, or null if the item has no INTEGER marker
+     */
+    static Integer readStamp(ItemStack item, NamespacedKey key) {
+        PersistentDataContainerView container = item.getPersistentDataContainer();
+        return container.has(key, PersistentDataType.INTEGER) ? container.get(key, PersistentDataType.INTEGER) : null;
+    }
+
+    /**
+     * Gets the remap for already extracted item attributes, for callers that
+     * read items without an ItemStack (e.g. from NBT)
+     *
+     * @param material The item material
+     * @param customModelData The custom model data, or {@link #NO_CUSTOM_MODEL_DATA}
+     * @param enchanted Whether the item carries enchantments
+     * @return The ItemRemap object, or null if no remap applies
+     */
+    public ItemRemapperPlugin.ItemRemap match(Material material, int customModelData, boolean enchanted) {
+        Rule rule = material == null ? null : byOrdinal[material.ordinal()];
+        return rule == null ? null : rule.select(customModelData, enchanted);
+    }
+
+    /**
+     * Gets the material-level remap, ignoring variants
+     *
+     * @param material The material, may be null
+     * @return The ItemRemap object, or null if the material has no own name or lore
+     */
+    public ItemRemapperPlugin.ItemRemap get(Material material) {
+        Rule rule = material == null ? null : byOrdinal[material.ordinal()];
+        return rule == null ? null : rule.base;
+    }
+
+    /**
+     * Checks if any rule covers a material
+     *
+     * @param material The material, may be null
+     * @return true if items of the material may be remapped
+     */
+    public boolean hasRule(Material material) {
+        return material != null && byOrdinal[material.ordinal()] != null;
+    }
+
+    /**
+     * Collects the materials whose rules are new or differ from the previous table.
+     * Materials whose rule was removed are not included, since items keep their
+     * name once a remap no longer applies.
+     *
+     * @param previous The table that was active before
+     * @return The materials whose items need to be restamped
+     */
+    public EnumSet<Material> changedSince(RemapTable previous) {
+        EnumSet<Material> changed = EnumSet.noneOf(Material.class);
+        Material[] materials = Material.values();
+        for (int i = 0; i < byOrdinal.length; i++) {
+            Rule current = byOrdinal[i];
+            Rule old = previous.byOrdinal[i];
+            if (current != null && (old == null || old.signature != current.signature)) {
+                changed.add(materials[i]);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Checks if any remap has per-locale renderings
+     *
+     * @return true if item packets need to be rendered per client locale
+     */
+    public boolean hasLocales() {
+        return hasLocales;
+    }
+
+    /**
+     * Gets the number of materials with a remap
+     *
+     * @return The count of item remappings
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,96 @@
+package com.itemremapper;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+/**
+ * Applies the configured remap to a single ItemStack in place.
+ * Shared by the inventory listener and the post-reload inventory sweep.
+ */
+public class StackRemapper {
+
+    private final ItemRemapperPlugin plugin;
+    private final NamespacedKey remappedKey;
+    private final PluginMetrics metrics;
+
+    public StackRemapper(ItemRemapperPlugin plugin) {
+        this.plugin = plugin;
+        this.remappedKey = plugin.getRemappedKey();
+        this.metrics = plugin.getMetrics();
+    }
+
+    /**
+     * Remaps an item's display name and lore if a mapping exists
+     * 
+     * @param item The ItemStack to potentially remap
+     * @return true if the item was modified
+     */
+    public boolean remap(ItemStack item) {
+        // Null check
+        if (item == null) {
+            return false;
+        }
+
+        // Check if a rule applies to this item (AIR never has one)
+        Material material = item.getType();
+        ItemRemapperPlugin.ItemRemap remap = plugin.getItemRemap(item);
+        if (remap == null) {
+            metrics.increment(PluginMetrics.Counter.REMAP_NO_RULE);
+            return false; // No remapping for this item
+        }
+
+        // Items stamped with the current remap are up-to-date, no meta clone needed.
+        // The legacy BYTE marker reads as no stamp and is rewritten below.
+        boolean hasMeta = item.hasItemMeta();
+        Integer currentStamp = hasMeta ? RemapTable.readStamp(item, remappedKey) : null;
+        if (currentStamp != null && currentStamp == remap.getStamp()) {
+            metrics.increment(PluginMetrics.Counter.REMAP_UP_TO_DATE);
+            return false;
+        }
+
+        // Plain items take the prebuilt prototype as a whole
+        ItemMeta prototype = remap.getPrototypeMeta();
+        if (!hasMeta && prototype != null) {
+            item.setItemMeta(prototype);
+            metrics.increment(PluginMetrics.Counter.REMAP_REMAPPED);
+            plugin.trace(DebugTrace.Category.ITEM, () -> "Remapped " + material + " from prototype (stamp " + remap.getStamp() + ")");
+            return true;
+        }
+
+        // Get or create item meta
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) {
+            return false; // Cannot modify items without meta
+        }
+
+        PersistentDataContainer dataContainer = meta.getPersistentDataContainer();
+        if (hasMeta) {
+            // Check if item was remapped by a player (has custom name/lore but no plugin marker)
+            boolean isPluginRemapped = currentStamp != null || dataContainer.has(remappedKey, PersistentDataType.BYTE);
+            boolean hasCustomData = meta.hasDisplayName() || meta.hasLore();
+
+            // If item has custom data but NO plugin marker, it was renamed by a player - don't touch it
+            if (hasCustomData && !isPluginRemapped) {
+                metrics.increment(PluginMetrics.Counter.REMAP_PLAYER_RENAMED);
+                plugin.trace(DebugTrace.Category.ITEM, () -> "Item " + material + " was renamed by player, skipping remap.");
+                return false;
+            }
+        }
+
+        // Stamp is missing or stale: rewrite name and lore from the pre-parsed components
+        meta.displayName(remap.getDisplayNameComponent());
+        meta.lore(remap.getLoreComponents());
+
+        // Mark this item as remapped by the plugin with the current config stamp
+        dataContainer.set(remappedKey, PersistentDataType.INTEGER, remap.getStamp());
+        item.setItemMeta(meta);
+        metrics.increment(PluginMetrics.Counter.REMAP_REMAPPED);
+
+        plugin.trace(DebugTrace.Category.ITEM, () -> "Remapped " + material + " (stamp " + remap.getStamp() + ")");
+        return true;
+    }
+}
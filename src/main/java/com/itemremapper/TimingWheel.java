@@ -0,0 +1,247 @@
+package com.itemremapper;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel for tick-based expirations. Four levels of 64 slots
+ * cover 2^24 ticks (about 9.7 days); an entry sits in the level matching its distance
+ * and moves down as its deadline comes closer, so each entry is touched at most once
+ * per level and expiring it is O(1).
+ * <p>
+ * Entries are grouped by kind; each kind keeps a primitive key-to-deadline table,
+ * which is the source of truth. Rescheduling or cancelling only updates the table;
+ * stale wheel entries are dropped when their slot comes up.
+ * All methods are thread-safe. {@link #advance()} must be called once per tick.
+ */
+public class TimingWheel {
+
+    /**
+     * Receives expired entries, outside the wheel's lock
+     */
+    @FunctionalInterface
+    public interface ExpiryHandler {
+        void expired(int kind, long key, Object payload);
+    }
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final Slot[][] wheel = new Slot[LEVELS][SLOTS];
+    private final LongLongMap[] deadlines;
+    private final ExpiryHandler handler;
+    private final Slot expired = new Slot();
+    private long now;
+
+    // Bit per kind with a non-empty table, read without locking
+    private volatile long activeKinds;
+
+    /**
+     * @param kinds The number of entry kinds, at most 64
+     * @param handler Receives expired entries, may be null
+     */
+    public TimingWheel(int kinds, ExpiryHandler handler) {
+        if (kinds < 1 || kinds > Long.SIZE) {
+            throw new IllegalArgumentException("Between 1 and 64 kinds");
+        }
+        this.deadlines = new LongLongMap[kinds];
+        for (int kind = 0; kind < kinds; kind++) {
+            deadlines[kind] = new LongLongMap(16);
+        }
+        for (Slot[] level : wheel) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = new Slot();
+            }
+        }
+        this.handler = handler;
+    }
+
+    /**
+     * Schedules or reschedules an entry
+     *
+     * @param delayTicks Ticks until the entry expires, at least 1
+     * @param payload Handed to the expiry handler, may be null
+     */
+    public synchronized void schedule(int kind, long key, long delayTicks, Object payload) {
+        long deadline = now + Math.max(1L, delayTicks);
+        deadlines[kind].put(key, deadline);
+        insert(kind, key, deadline, payload);
+        activeKinds |= 1L << kind;
+    }
+
+    /**
+     * Cancels an entry without calling the handler
+     *
+     * @return true if the entry was scheduled
+     */
+    public synchronized boolean cancel(int kind, long key) {
+        boolean removed = deadlines[kind].remove(key) != 0L;
+        if (removed && deadlines[kind].isEmpty()) {
+            activeKinds &= ~(1L << kind);
+        }
+        return removed;
+    }
+
+    /**
+     * Checks if an entry is scheduled and not expired yet
+     */
+    public synchronized boolean isScheduled(int kind, long key) {
+        return deadlines[kind].get(key) > now;
+    }
+
+    /**
+     * Checks if a kind has no scheduled entries, without locking
+     */
+    public boolean isEmpty(int kind) {
+        return (activeKinds & (1L << kind)) == 0L;
+    }
+
+    /**
+     * Gets the number of ticks advanced so far
+     */
+    public synchronized long getTick() {
+        return now;
+    }
+
+    /**
+     * Advances one tick and hands the entries expiring on it to the handler
+     */
+    public void advance() {
+        Slot due;
+        synchronized (this) {
+            now++;
+
+            // Move the entries of higher-level slots that come into range down, top level first
+            int top = 0;
+            while (top + 1 < LEVELS && (now & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0L) {
+                top++;
+            }
+            for (int level = top; level >= 1; level--) {
+                Slot slot = wheel[level][(int) (now >>> (SLOT_BITS * level)) & MASK];
+                Slot moving = slot.drain();
+                for (int i = 0; i < moving.size; i++) {
+                    // Entries cancelled or rescheduled since are dropped here already
+                    if (deadlines[moving.kinds[i]].get(moving.keys[i]) == moving.deadlines[i]) {
+                        insert(moving.kinds[i], moving.keys[i], moving.deadlines[i], moving.payloads[i]);
+                    }
+                }
+                moving.clear();
+                slot.recycle(moving);
+            }
+
+            Slot slot = wheel[0][(int) now & MASK];
+            expired.clear();
+            for (int i = 0; i < slot.size; i++) {
+                int kind = slot.kinds[i];
+                long key = slot.keys[i];
+                // Skip entries that were cancelled or rescheduled since
+                if (slot.deadlines[i] == now && deadlines[kind].get(key) == now) {
+                    deadlines[kind].remove(key);
+                    expired.add(kind, key, now, slot.payloads[i]);
+                }
+            }
+            slot.clear();
+
+            long active = 0L;
+            for (int kind = 0; kind < deadlines.length; kind++) {
+                if (!deadlines[kind].isEmpty()) {
+                    active |= 1L << kind;
+                }
+            }
+            activeKinds = active;
+            due = expired;
+        }
+
+        // Only the ticking thread reads the expired buffer
+        if (handler != null) {
+            for (int i = 0; i < due.size; i++) {
+                handler.expired(due.kinds[i], due.keys[i], due.payloads[i]);
+            }
+        }
+    }
+
+    /**
+     * Drops all entries
+     */
+    public synchronized void clear() {
+        for (LongLongMap table : deadlines) {
+            table.clear();
+        }
+        for (Slot[] level : wheel) {
+            for (Slot slot : level) {
+                slot.clear();
+            }
+        }
+        activeKinds = 0L;
+    }
+
+    private void insert(int kind, long key, long deadline, Object payload) {
+        long delta = deadline - now;
+        int level = 0;
+        while (level + 1 < LEVELS && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        wheel[level][(int) (deadline >>> (SLOT_BITS * level)) & MASK].add(kind, key, deadline, payload);
+    }
+
+    /**
+     * Growable parallel arrays of entries
+     */
+    private static final class Slot {
+        int size;
+        int[] kinds = new int[4];
+        long[] keys = new long[4];
+        long[] deadlines = new long[4];
+        Object[] payloads = new Object[4];
+        private Slot spare;
+
+        void add(int kind, long key, long deadline, Object payload) {
+            if (size == keys.length) {
+                int capacity = size << 1;
+                kinds = Arrays.copyOf(kinds, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+                deadlines = Arrays.copyOf(deadlines, capacity);
+                payloads = Arrays.copyOf(payloads, capacity);
+            }
+            kinds[size] = kind;
+            keys[size] = key;
+            deadlines[size] = deadline;
+            payloads[size] = payload;
+            size++;
+        }
+
+        /**
+         * Swaps the entries into a spare slot and leaves this one empty, so entries
+         * can be re-inserted while the old ones are iterated
+         */
+        Slot drain() {
+            Slot drained = spare != null ? spare : new Slot();
+            spare = null;
+            int[] kindsSwap = drained.kinds;
+            long[] keysSwap = drained.keys;
+            long[] deadlinesSwap = drained.deadlines;
+            Object[] payloadsSwap = drained.payloads;
+            drained.kinds = kinds;
+            drained.keys = keys;
+            drained.deadlines = deadlines;
+            drained.payloads = payloads;
+            drained.size = size;
+            kinds = kindsSwap;
+            keys = keysSwap;
+            deadlines = deadlinesSwap;
+            payloads = payloadsSwap;
+            size = 0;
+            return drained;
+        }
+
+        void recycle(Slot drained) {
+            spare = drained;
+        }
+
+        void clear() {
+            Arrays.fill(payloads, 0, size, null);
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.itemremapper;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.FurnaceExtractEvent;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Covers items that reach inventories without a click on them: hopper and dropper
+ * transfers into storage, shift-click crafting and furnace extraction.
+ * Transfers only mark the inventory and material as dirty; each dirty inventory is
+ * remapped in one pass when its coalescing window ends, on the thread owning it.
+ */
+public class TransferRemapper implements Listener {
+
+    // Only storage inventories are remapped; furnaces, brewing stands and hoppers compare
+    // their contents against recipe results and would stall on renamed items
+    private static final Set<InventoryType> STORAGE_TYPES = EnumSet.of(
+        InventoryType.CHEST,
+        InventoryType.BARREL,
+        InventoryType.SHULKER_BOX,
+        InventoryType.ENDER_CHEST
+    );
+
+    private final ItemRemapperPlugin plugin;
+    private final StackRemapper stackRemapper;
+    private final long coalesceTicks;
+
+    // Marks and flushes for one inventory always run on the thread owning it
+    private final Map<Inventory, EnumSet<Material>> dirtyInventories = new ConcurrentHashMap<>();
+
+    public TransferRemapper(ItemRemapperPlugin plugin, StackRemapper stackRemapper) {
+        this.plugin = plugin;
+        this.stackRemapper = stackRemapper;
+        this.coalesceTicks = Math.max(1L, plugin.getConfig().getLong("transfer.coalesce-ticks", 20L));
+    }
+
+    /**
+     * Handles hopper, dropper and hopper minecart transfers into storage
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryMoveItem(InventoryMoveItemEvent event) {
+        Inventory destination = event.getDestination();
+        if (!STORAGE_TYPES.contains(destination.getType())) {
+            return;
+        }
+        markDirty(destination, event.getItem().getType());
+    }
+
+    /**
+     * Handles shift-click chains: crafting several results at once, or moving
+     * a stack into the other inventory
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryShiftClick(InventoryClickEvent event) {
+        if (event.getAction() != InventoryAction.MOVE_TO_OTHER_INVENTORY) {
+            return;
+        }
+        if (!(event.getWhoClicked() instanceof Player player)) {
+            return;
+        }
+        ItemStack moved = event.getCurrentItem();
+        if (moved == null) {
+            return;
+        }
+
+        // Shift-clicks from the top inventory land in the player's inventory and vice versa
+        Inventory clicked = event.getClickedInventory();
+        Inventory target = clicked == event.getView().getTopInventory()
+                ? player.getInventory()
+                : event.getView().getTopInventory();
+        if (target == player.getInventory() || STORAGE_TYPES.contains(target.getType())) {
+            markDirty(target, moved.getType());
+        }
+    }
+
+    /**
+     * Handles players taking smelted items out of a furnace
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onFurnaceExtract(FurnaceExtractEvent event) {
+        markDirty(event.getPlayer().getInventory(), event.getItemType());
+    }
+
+    /**
+     * Records a material as dirty in an inventory and schedules the flush for
+     * the first mark of a window
+     */
+    private void markDirty(Inventory inventory, Material material) {
+        if (!plugin.hasRemapRule(material)) {
+            return;
+        }
+
+        EnumSet<Material> dirty = dirtyInventories.get(inventory);
+        if (dirty != null) {
+            dirty.add(material);
+            return;
+        }
+
+        dirty = EnumSet.of(material);
+        dirtyInventories.put(inventory, dirty);
+        scheduleFlush(inventory);
+    }
+
+    /**
+     * Schedules the flush on the thread that owns the inventory
+     */
+    private void scheduleFlush(Inventory inventory) {
+        // Player inventories and ender chests belong to the player's region
+        boolean playerOwned = inventory instanceof PlayerInventory || inventory.getType() == InventoryType.ENDER_CHEST;
+        if (playerOwned && inventory.getHolder() instanceof Player player) {
+            Runnable retired = () -> dirtyInventories.remove(inventory);
+            if (player.getScheduler().runDelayed(plugin, (task) -> flush(inventory), retired, coalesceTicks) == null) {
+                retired.run();
+            }
+            return;
+        }
+
+        Location location = inventory.getLocation();
+        if (location == null || location.getWorld() == null) {
+            dirtyInventories.remove(inventory);
+            return;
+        }
+        Bukkit.getRegionScheduler().runDelayed(plugin, location, (task) -> flush(inventory), coalesceTicks);
+    }
+
+    /**
+     * Remaps all stacks of the dirty materials in one pass, each in its slot
+     */
+    private void flush(Inventory inventory) {
+        EnumSet<Material> dirty = dirtyInventories.remove(inventory);
+        if (dirty == null) {
+            return;
+        }
+
+        long start = plugin.getMetrics().start();
+        ItemStack[] contents = inventory.getStorageContents();
+        int remapped = 0;
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            if (item == null || !dirty.contains(item.getType()) || !stackRemapper.remap(item)) {
+                continue;
+            }
+            remapped++;
+            inventory.setItem(slot, item);
+        }
+
+        plugin.getMetrics().stop(PluginMetrics.Timer.TRANSFER_FLUSH, start);
+
+        if (remapped > 0) {
+            int stacks = remapped;
+            plugin.trace(DebugTrace.Category.TRANSFER, () -> "Transfer flush remapped " + stacks + " stack(s) in " + inventory.getType());
+        }
+    }
+}
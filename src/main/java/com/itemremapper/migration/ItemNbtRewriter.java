@@ -0,0 +1,213 @@
+package com.itemremapper.migration;
+
+import com.itemremapper.ItemRemapperPlugin;
+import com.itemremapper.RemapTable;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.bukkit.Material;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies a remap table to the items in a decoded NBT tree, the same way
+ * {@link com.itemremapper.StackRemapper} does for live ItemStacks: up-to-date
+ * stamps and player-renamed items are left alone.
+ *
+ * <p>Understands the pre-1.20.5 item layout ({@code Count} and {@code tag}) and the
+ * data component layout up to 1.21.4. Newer data versions store names as NBT text
+ * components and are reported as unsupported instead of being guessed at.</p>
+ */
+public final class ItemNbtRewriter {
+
+    // First data version with item data components (24w09a, 1.20.5)
+    private static final int COMPONENTS_DATA_VERSION = 3837;
+    // First data version storing text components as NBT instead of JSON (25w02a, 1.21.5)
+    private static final int NBT_TEXT_DATA_VERSION = 4325;
+
+    private static final String MARKER_KEY = "itemremapper:remapped";
+    private static final String BUKKIT_VALUES = "PublicBukkitValues";
+
+    private final RemapTable table;
+    private final MigrationReport report;
+    private final Map<String, Optional<Material>> materialsById = new ConcurrentHashMap<>();
+
+    // JSON of each remap's name and lore, computed once per remap
+    private final Map<ItemRemapperPlugin.ItemRemap, RemapJson> jsonByRemap = new ConcurrentHashMap<>();
+
+    private record RemapJson(String name, NbtIo.NbtList lore) {
+    }
+
+    public ItemNbtRewriter(RemapTable table, MigrationReport report) {
+        this.table = table;
+        this.report = report;
+    }
+
+    /**
+     * Rewrites all items in a chunk, entity chunk or player file
+     *
+     * @param root The decoded root compound
+     * @return true if any item was changed
+     */
+    public boolean rewrite(Map<String, Object> root) {
+        int dataVersion = root.get("DataVersion") instanceof Integer version ? version : 0;
+        if (dataVersion >= NBT_TEXT_DATA_VERSION) {
+            report.unsupportedData.increment();
+            return false;
+        }
+        return walk(root, dataVersion >= COMPONENTS_DATA_VERSION);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean walk(Object value, boolean components) {
+        boolean changed = false;
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> compound = (Map<String, Object>) map;
+            if (isItem(compound, components)) {
+                changed = rewriteItem(compound, components);
+            }
+            // Containers nest items (shulker boxes, bundles), so keep descending
+            for (Object child : compound.values()) {
+                changed |= walk(child, components);
+            }
+        } else if (value instanceof NbtIo.NbtList list
+                && (list.getElementType() == NbtIo.TAG_COMPOUND || list.getElementType() == NbtIo.TAG_LIST)) {
+            for (Object child : list) {
+                changed |= walk(child, components);
+            }
+        }
+        return changed;
+    }
+
+    private static boolean isItem(Map<String, Object> compound, boolean components) {
+        // Entities and block entities have ids too, but never an item count
+        return compound.get("id") instanceof String
+                && (components ? compound.get("count") instanceof Integer : compound.get("Count") instanceof Byte);
+    }
+
+    private boolean rewriteItem(Map<String, Object> item, boolean components) {
+        Material material = materialsById
+                .computeIfAbsent((String) item.get("id"), id -> Optional.ofNullable(Material.matchMaterial(id)))
+                .orElse(null);
+        if (material == null || !table.hasRule(material)) {
+            return false;
+        }
+
+        // Item data lives in "components" since 1.20.5 and in "tag" before
+        Map<String, Object> data = child(item, components ? "components" : "tag");
+        ItemRemapperPlugin.ItemRemap remap = table.match(material,
+                data != null ? customModelData(data, components) : RemapTable.NO_CUSTOM_MODEL_DATA,
+                data != null && isEnchanted(data, components));
+        if (remap == null) {
+            return false;
+        }
+
+        Map<String, Object> bukkitValues = data == null ? null
+                : child(components ? child(data, "minecraft:custom_data") : data, BUKKIT_VALUES);
+        Object marker = bukkitValues != null ? bukkitValues.get(MARKER_KEY) : null;
+
+        if (marker instanceof Integer stamp && stamp == remap.getStamp()) {
+            report.itemsCurrent.increment();
+            return false;
+        }
+
+        // Player-renamed items stay as they are; legacy byte markers count as plugin-owned
+        boolean isPluginRemapped = marker instanceof Integer || marker instanceof Byte;
+        if (data != null && hasNameOrLore(data, components) && !isPluginRemapped) {
+            report.itemsPlayerRenamed.increment();
+            return false;
+        }
+
+        if (data == null) {
+            data = new LinkedHashMap<>();
+            item.put(components ? "components" : "tag", data);
+        }
+        applyRemap(data, remap, components);
+        report.recordRemapped(material);
+        return true;
+    }
+
+    private void applyRemap(Map<String, Object> data, ItemRemapperPlugin.ItemRemap remap, boolean components) {
+        RemapJson json = jsonByRemap.computeIfAbsent(remap, ItemNbtRewriter::toJson);
+
+        Map<String, Object> textHolder = components ? data : getOrCreate(data, "display");
+        String nameKey = components ? "minecraft:custom_name" : "Name";
+        String loreKey = components ? "minecraft:lore" : "Lore";
+        if (json.name() != null) {
+            textHolder.put(nameKey, json.name());
+        } else {
+            textHolder.remove(nameKey);
+        }
+        if (json.lore() != null) {
+            NbtIo.NbtList lore = new NbtIo.NbtList(NbtIo.TAG_STRING);
+            lore.addAll(json.lore());
+            textHolder.put(loreKey, lore);
+        } else {
+            textHolder.remove(loreKey);
+        }
+        if (!components && textHolder.isEmpty()) {
+            data.remove("display");
+        }
+
+        Map<String, Object> bukkitHolder = components ? getOrCreate(data, "minecraft:custom_data") : data;
+        getOrCreate(bukkitHolder, BUKKIT_VALUES).put(MARKER_KEY, remap.getStamp());
+    }
+
+    private static RemapJson toJson(ItemRemapperPlugin.ItemRemap remap) {
+        GsonComponentSerializer serializer = GsonComponentSerializer.gson();
+        String name = remap.hasDisplayName() ? serializer.serialize(remap.getDisplayNameComponent()) : null;
+
+        NbtIo.NbtList lore = null;
+        List<Component> loreComponents = remap.getLoreComponents();
+        if (remap.hasLore() && loreComponents != null) {
+            lore = new NbtIo.NbtList(NbtIo.TAG_STRING);
+            for (Component line : loreComponents) {
+                lore.add(serializer.serialize(line));
+            }
+        }
+        return new RemapJson(name, lore);
+    }
+
+    private static int customModelData(Map<String, Object> data, boolean components) {
+        Object value = data.get(components ? "minecraft:custom_model_data" : "CustomModelData");
+        return value instanceof Integer customModelData ? customModelData : RemapTable.NO_CUSTOM_MODEL_DATA;
+    }
+
+    private static boolean isEnchanted(Map<String, Object> data, boolean components) {
+        if (components) {
+            Map<String, Object> enchantments = child(data, "minecraft:enchantments");
+            Map<String, Object> levels = enchantments != null ? child(enchantments, "levels") : null;
+            return levels != null && !levels.isEmpty();
+        }
+        return data.get("Enchantments") instanceof NbtIo.NbtList list && !list.isEmpty();
+    }
+
+    private static boolean hasNameOrLore(Map<String, Object> data, boolean components) {
+        if (components) {
+            return data.containsKey("minecraft:custom_name") || data.containsKey("minecraft:lore");
+        }
+        Map<String, Object> display = child(data, "display");
+        return display != null && (display.containsKey("Name") || display.containsKey("Lore"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> child(Map<String, Object> compound, String key) {
+        if (compound == null) {
+            return null;
+        }
+        return compound.get(key) instanceof Map<?, ?> map ? (Map<String, Object>) map : null;
+    }
+
+    private static Map<String, Object> getOrCreate(Map<String, Object> compound, String key) {
+        Map<String, Object> existing = child(compound, key);
+        if (existing != null) {
+            return existing;
+        }
+        Map<String, Object> created = new LinkedHashMap<>();
+        compound.put(key, created);
+        return created;
+    }
+}
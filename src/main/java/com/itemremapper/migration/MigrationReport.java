@@ -0,0 +1,79 @@
+package com.itemremapper.migration;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one migration run, updated concurrently by the file tasks
+ */
+public final class MigrationReport {
+
+    final LongAdder filesScanned = new LongAdder();
+    final LongAdder filesChanged = new LongAdder();
+    final LongAdder chunksScanned = new LongAdder();
+    final LongAdder chunksChanged = new LongAdder();
+    final LongAdder chunksKeptRaw = new LongAdder();
+    final LongAdder itemsRemapped = new LongAdder();
+    final LongAdder itemsCurrent = new LongAdder();
+    final LongAdder itemsPlayerRenamed = new LongAdder();
+    final LongAdder unsupportedData = new LongAdder();
+    final LongAdder bytesRead = new LongAdder();
+
+    private final Map<Material, LongAdder> remappedByMaterial = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+
+    void recordRemapped(Material material) {
+        itemsRemapped.increment();
+        remappedByMaterial.computeIfAbsent(material, m -> new LongAdder()).increment();
+    }
+
+    void recordFailure(String file, Exception e) {
+        failures.add(file + ": " + e.getMessage());
+    }
+
+    boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    /**
+     * Formats the report for the console
+     *
+     * @param dryRun Whether the run only counted changes
+     * @param millis Duration of the run
+     * @return The report lines
+     */
+    List<String> format(boolean dryRun, long millis) {
+        List<String> lines = new ArrayList<>();
+        String verb = dryRun ? "would be remapped" : "remapped";
+
+        lines.add((dryRun ? "Dry run" : "Migration") + " finished in " + millis + " ms");
+        lines.add("  Files: " + filesScanned.sum() + " scanned (" + (bytesRead.sum() / (1024 * 1024)) + " MiB), "
+                + filesChanged.sum() + (dryRun ? " would change" : " changed"));
+        lines.add("  Chunks: " + chunksScanned.sum() + " scanned, " + chunksChanged.sum()
+                + (dryRun ? " would change" : " changed") + ", " + chunksKeptRaw.sum() + " kept as-is (unsupported format)");
+        lines.add("  Items: " + itemsRemapped.sum() + " " + verb + ", " + itemsCurrent.sum() + " already up to date, "
+                + itemsPlayerRenamed.sum() + " player-renamed (skipped)");
+        if (unsupportedData.sum() > 0) {
+            lines.add("  " + unsupportedData.sum() + " chunk(s)/file(s) use a data version newer than 1.21.4 and were skipped");
+        }
+
+        remappedByMaterial.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Material, LongAdder> e) -> e.getValue().sum()).reversed())
+                .forEach(e -> lines.add("    " + e.getKey().name() + ": " + e.getValue().sum()));
+
+        if (!failures.isEmpty()) {
+            lines.add("  Failed files (left unchanged):");
+            for (String failure : failures) {
+                lines.add("    " + failure);
+            }
+        }
+        return lines;
+    }
+}
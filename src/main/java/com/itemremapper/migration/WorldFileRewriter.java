@@ -0,0 +1,266 @@
+package com.itemremapper.migration;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads region and player files through memory-mapped channels and writes changed
+ * files to a temporary sibling that atomically replaces the original.
+ * Unchanged chunks are copied as their original compressed bytes.
+ */
+final class WorldFileRewriter {
+
+    private static final int SECTOR_SIZE = 4096;
+    private static final int CHUNKS_PER_REGION = 1024;
+    private static final int MAX_CHUNK_SECTORS = 255;
+
+    private static final byte COMPRESSION_GZIP = 1;
+    private static final byte COMPRESSION_ZLIB = 2;
+    private static final byte COMPRESSION_NONE = 3;
+
+    private final ItemNbtRewriter rewriter;
+    private final MigrationReport report;
+    private final boolean dryRun;
+
+    WorldFileRewriter(ItemNbtRewriter rewriter, MigrationReport report, boolean dryRun) {
+        this.rewriter = rewriter;
+        this.report = report;
+        this.dryRun = dryRun;
+    }
+
+    /**
+     * Rewrites the items of all chunks in an Anvil region file (.mca)
+     *
+     * @param file The region file
+     * @throws IOException If the file cannot be read or is corrupt; it is then left unchanged
+     */
+    void rewriteRegion(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            report.filesScanned.increment();
+            report.bytesRead.add(size);
+            if (size < 2L * SECTOR_SIZE) {
+                return; // Empty region, the server writes these for unsaved chunks
+            }
+
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer[] chunks = new ByteBuffer[CHUNKS_PER_REGION];
+            boolean changed = false;
+
+            for (int index = 0; index < CHUNKS_PER_REGION; index++) {
+                int location = region.getInt(index * 4);
+                long offset = (long) (location >>> 8) * SECTOR_SIZE;
+                if (offset == 0) {
+                    continue;
+                }
+                if (offset + 5 > size) {
+                    throw new IOException("chunk " + index + " points past the end of the file");
+                }
+
+                int length = region.getInt((int) offset);
+                if (length < 1 || offset + 4 + length > size) {
+                    throw new IOException("chunk " + index + " has an invalid length " + length);
+                }
+                ByteBuffer original = region.slice((int) offset, 4 + length);
+                chunks[index] = original;
+                report.chunksScanned.increment();
+
+                byte compression = region.get((int) offset + 4);
+                if (compression != COMPRESSION_GZIP && compression != COMPRESSION_ZLIB && compression != COMPRESSION_NONE) {
+                    // External (.mcc) or LZ4 chunks are copied unchanged
+                    report.chunksKeptRaw.increment();
+                    continue;
+                }
+
+                Map<String, Object> root;
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                        decompress(compression, region.slice((int) offset + 5, length - 1))))) {
+                    root = NbtIo.readRoot(in);
+                }
+                if (!rewriter.rewrite(root)) {
+                    continue;
+                }
+
+                ByteBuffer rewritten = encodeChunk(root);
+                if (rewritten.remaining() > MAX_CHUNK_SECTORS * SECTOR_SIZE) {
+                    // Would need an external chunk file; keep the original rather than dropping it
+                    report.chunksKeptRaw.increment();
+                    continue;
+                }
+                chunks[index] = rewritten;
+                report.chunksChanged.increment();
+                changed = true;
+            }
+
+            if (!changed) {
+                return;
+            }
+            report.filesChanged.increment();
+            if (!dryRun) {
+                writeRegion(file, region, chunks);
+            }
+        }
+    }
+
+    /**
+     * Rewrites the items of a gzip-compressed player file (playerdata/*.dat)
+     *
+     * @param file The player file
+     * @throws IOException If the file cannot be read; it is then left unchanged
+     */
+    void rewritePlayerData(Path file) throws IOException {
+        Map<String, Object> root;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            report.filesScanned.increment();
+            report.bytesRead.add(size);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    decompress(COMPRESSION_GZIP, mapped)))) {
+                root = NbtIo.readRoot(in);
+            }
+        }
+
+        if (!rewriter.rewrite(root)) {
+            return;
+        }
+        report.filesChanged.increment();
+        if (dryRun) {
+            return;
+        }
+
+        Path temp = tempFileFor(file);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temp))))) {
+            NbtIo.writeRoot(out, root);
+        }
+        replace(temp, file);
+    }
+
+    private static InputStream decompress(byte compression, ByteBuffer data) throws IOException {
+        InputStream raw = new ByteBufferInputStream(data);
+        return switch (compression) {
+            case COMPRESSION_GZIP -> new GZIPInputStream(raw);
+            case COMPRESSION_ZLIB -> new InflaterInputStream(raw);
+            default -> raw;
+        };
+    }
+
+    /**
+     * Encodes a chunk as it is stored in a region: length, compression type, zlib data
+     */
+    private static ByteBuffer encodeChunk(Map<String, Object> root) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        bytes.write(new byte[] {0, 0, 0, 0, COMPRESSION_ZLIB});
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(bytes)))) {
+            NbtIo.writeRoot(out, root);
+        }
+        ByteBuffer encoded = ByteBuffer.wrap(bytes.toByteArray());
+        encoded.putInt(0, encoded.remaining() - 4);
+        return encoded;
+    }
+
+    /**
+     * Writes a region file with the given chunks, keeping the original timestamps
+     */
+    private static void writeRegion(Path file, ByteBuffer original, ByteBuffer[] chunks) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(2 * SECTOR_SIZE);
+        header.put(SECTOR_SIZE, original, SECTOR_SIZE, SECTOR_SIZE); // Timestamps
+
+        Path temp = tempFileFor(file);
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            int sector = 2;
+            out.position((long) sector * SECTOR_SIZE);
+            for (int index = 0; index < CHUNKS_PER_REGION; index++) {
+                ByteBuffer chunk = chunks[index];
+                if (chunk == null) {
+                    continue;
+                }
+                int length = chunk.remaining();
+                int sectors = (length + SECTOR_SIZE - 1) / SECTOR_SIZE;
+                header.putInt(index * 4, (sector << 8) | sectors);
+
+                ByteBuffer data = chunk.duplicate();
+                while (data.hasRemaining()) {
+                    out.write(data);
+                }
+                // Pad to the sector boundary
+                int padding = sectors * SECTOR_SIZE - length;
+                if (padding > 0) {
+                    out.write(ByteBuffer.allocate(padding));
+                }
+                sector += sectors;
+            }
+
+            header.rewind();
+            out.position(0);
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            out.force(false);
+        }
+        replace(temp, file);
+    }
+
+    private static Path tempFileFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".migrating");
+    }
+
+    private static void replace(Path temp, Path file) throws IOException {
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Streams a mapped buffer without copying it to the heap first
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer.duplicate();
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
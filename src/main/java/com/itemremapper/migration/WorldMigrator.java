@@ -0,0 +1,226 @@
+package com.itemremapper.migration;
+
+import com.itemremapper.RemapTable;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Offline migration of stored items: applies the item-remaps of a plugin config to
+ * every region file ({@code region/} and {@code entities/}) and player file
+ * ({@code playerdata/}) of one or more stopped worlds.
+ * Files are processed in parallel on a fork-join pool.
+ *
+ * <pre>
+ * java -cp "ItemRemapper.jar:migrator-lib/*" com.itemremapper.migration.WorldMigrator \
+ *     plugins/ItemRemapper/config.yml world world_nether world_the_end [--dry-run] [--threads N]
+ * </pre>
+ */
+public final class WorldMigrator {
+
+    private static final Logger LOGGER = Logger.getLogger("ItemRemapper-Migrator");
+    private static final int PROGRESS_INTERVAL_FILES = 500;
+
+    private WorldMigrator() {
+    }
+
+    public static void main(String[] args) {
+        boolean dryRun = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> paths = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--dry-run" -> dryRun = true;
+                case "--threads" -> {
+                    if (i + 1 >= args.length) {
+                        usage();
+                        return;
+                    }
+                    threads = Math.max(1, Integer.parseInt(args[++i]));
+                }
+                default -> paths.add(Path.of(args[i]));
+            }
+        }
+        if (paths.size() < 2) {
+            usage();
+            return;
+        }
+
+        System.exit(run(paths.get(0), paths.subList(1, paths.size()), dryRun, threads));
+    }
+
+    private static void usage() {
+        System.err.println("Usage: WorldMigrator <config.yml> <world> [<world>...] [--dry-run] [--threads N]");
+        System.exit(1);
+    }
+
+    /**
+     * Migrates the given worlds
+     *
+     * @return The process exit code: 0 on success, 1 on setup errors, 2 if files failed
+     */
+    static int run(Path configFile, List<Path> worlds, boolean dryRun, int threads) {
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            config.load(configFile.toFile());
+        } catch (IOException | InvalidConfigurationException e) {
+            LOGGER.severe("Failed to load " + configFile + ": " + e.getMessage());
+            return 1;
+        }
+
+        // Same compilation as ItemRemapperPlugin.compileConfiguration, without prototype metas
+        RemapTable table = RemapTable.compile(config.getConfigurationSection("item-remaps"), LOGGER, null);
+        if (table.size() == 0) {
+            LOGGER.severe("No item remaps configured in " + configFile);
+            return 1;
+        }
+        if ("virtual".equalsIgnoreCase(config.getString("remap-mode", "stored")) && !dryRun) {
+            LOGGER.severe("Config uses remap-mode: virtual, stored items are not supposed to carry names");
+            return 1;
+        }
+
+        List<Path> files = new ArrayList<>();
+        for (Path world : worlds) {
+            if (!Files.isDirectory(world)) {
+                LOGGER.severe("Not a world directory: " + world);
+                return 1;
+            }
+            if (!dryRun && isInUse(world)) {
+                LOGGER.severe("World " + world + " is in use by a running server, stop it first");
+                return 1;
+            }
+            try {
+                collectFiles(world, files);
+            } catch (IOException e) {
+                LOGGER.severe("Failed to list " + world + ": " + e.getMessage());
+                return 1;
+            }
+        }
+
+        // Largest files first, so no worker ends up with a big region at the end
+        files.sort(Comparator.comparingLong(WorldMigrator::sizeOf).reversed());
+        LOGGER.info((dryRun ? "Dry run over " : "Migrating ") + files.size() + " file(s) with "
+                + table.size() + " remap(s) on " + threads + " thread(s)...");
+
+        MigrationReport report = new MigrationReport();
+        WorldFileRewriter rewriter = new WorldFileRewriter(new ItemNbtRewriter(table, report), report, dryRun);
+        AtomicInteger done = new AtomicInteger();
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new MigrateFiles(files, 0, files.size(), rewriter, report, done));
+        } finally {
+            pool.shutdown();
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+
+        report.format(dryRun, millis).forEach(LOGGER::info);
+        return report.hasFailures() ? 2 : 0;
+    }
+
+    /**
+     * Collects region, entity region and player files of a world and its dimensions
+     */
+    private static void collectFiles(Path world, List<Path> files) throws IOException {
+        try (Stream<Path> stream = Files.walk(world)) {
+            stream.filter(Files::isRegularFile).filter(path -> {
+                String name = path.getFileName().toString();
+                String parent = path.getParent().getFileName().toString();
+                return (name.endsWith(".mca") && (parent.equals("region") || parent.equals("entities")))
+                        || (name.endsWith(".dat") && parent.equals("playerdata"));
+            }).forEach(files::add);
+        }
+    }
+
+    /**
+     * Checks the world's session lock, which a running server holds
+     */
+    private static boolean isInUse(Path world) {
+        Path lockFile = world.resolve("session.lock");
+        if (!Files.exists(lockFile)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE);
+             FileLock lock = channel.tryLock()) {
+            return lock == null;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Splits the file list until each task handles a single file
+     */
+    private static final class MigrateFiles extends RecursiveAction {
+        private final List<Path> files;
+        private final int from;
+        private final int to;
+        private final WorldFileRewriter rewriter;
+        private final MigrationReport report;
+        private final AtomicInteger done;
+
+        MigrateFiles(List<Path> files, int from, int to, WorldFileRewriter rewriter,
+                     MigrationReport report, AtomicInteger done) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.rewriter = rewriter;
+            this.report = report;
+            this.done = done;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new MigrateFiles(files, from, middle, rewriter, report, done),
+                        new MigrateFiles(files, middle, to, rewriter, report, done));
+                return;
+            }
+            if (from >= to) {
+                return;
+            }
+
+            Path file = files.get(from);
+            try {
+                if (file.getFileName().toString().endsWith(".mca")) {
+                    rewriter.rewriteRegion(file);
+                } else {
+                    rewriter.rewritePlayerData(file);
+                }
+            } catch (IOException | RuntimeException e) {
+                report.recordFailure(file.toString(), e);
+            }
+
+            int count = done.incrementAndGet();
+            if (count % PROGRESS_INTERVAL_FILES == 0) {
+                LOGGER.info("Progress: " + count + "/" + files.size() + " files, "
+                        + report.itemsRemapped.sum() + " items remapped");
+            }
+        }
+    }
+}